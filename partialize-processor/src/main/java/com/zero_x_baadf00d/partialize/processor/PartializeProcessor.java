@@ -0,0 +1,492 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor generating reflection-free accessors for each
+ * class annotated with {@code @Partialize}. The getters of allowed
+ * fields are checked at compile time, and generated accessors are
+ * registered with {@code ServiceLoader}, so Partialize does not need
+ * to introspect these classes at runtime.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@SupportedAnnotationTypes(PartializeProcessor.ANNOTATION_NAME)
+public final class PartializeProcessor extends AbstractProcessor {
+
+    /**
+     * Qualified name of the {@code @Partialize} annotation.
+     *
+     * @since 26.10.17
+     */
+    static final String ANNOTATION_NAME = "com.zero_x_baadf00d.partialize.annotation.Partialize";
+
+    /**
+     * Qualified name of the generated accessors interface.
+     *
+     * @since 26.10.17
+     */
+    static final String ACCESSORS_NAME = "com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors";
+
+    /**
+     * Suffix appended to the name of generated classes.
+     *
+     * @since 26.10.17
+     */
+    static final String GENERATED_SUFFIX = "_PartializeAccessors";
+
+    /**
+     * Method prefixes used to resolve getters, same order as at runtime.
+     *
+     * @since 26.10.17
+     */
+    private static final String[] METHOD_PREFIXES = {"get", "is", "has", "can"};
+
+    /**
+     * Qualified names of the generated classes.
+     *
+     * @since 26.10.17
+     */
+    private final Set<String> generatedClasses = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        final TypeElement annotationElement = this.processingEnv.getElementUtils().getTypeElement(PartializeProcessor.ANNOTATION_NAME);
+        if (annotationElement != null) {
+            for (final TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotationElement))) {
+                this.processType(typeElement);
+            }
+        }
+        if (roundEnv.processingOver() && !this.generatedClasses.isEmpty()) {
+            this.writeServiceFile();
+        }
+        return false;
+    }
+
+    /**
+     * Check the getters of the given annotated class and generate its accessors.
+     *
+     * @param typeElement The annotated class
+     * @since 26.10.17
+     */
+    private void processType(final TypeElement typeElement) {
+        if (typeElement.getKind() == ElementKind.ANNOTATION_TYPE || !this.isAccessible(typeElement)) {
+            return;
+        }
+
+        final AnnotationMirror annotationMirror = this.findAnnotation(typeElement);
+        if (annotationMirror == null) {
+            return;
+        }
+        final List<String> declaredAllowedFields = this.readStringArray(annotationMirror, "allowedFields");
+        final List<String> defaultFields = this.readStringArray(annotationMirror, "defaultFields");
+        final Set<String> allowedFields = new LinkedHashSet<>(declaredAllowedFields);
+        if (allowedFields.isEmpty()) {
+            this.deriveAllowedFields(typeElement, allowedFields);
+        }
+
+        final Map<String, ExecutableElement> publicGetters = new HashMap<>();
+        for (final ExecutableElement m : ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(typeElement))) {
+            if (m.getModifiers().contains(Modifier.PUBLIC)
+                && m.getParameters().isEmpty()
+                && m.getReturnType().getKind() != TypeKind.VOID) {
+                publicGetters.putIfAbsent(m.getSimpleName().toString(), m);
+            }
+        }
+
+        final List<ExecutableElement> getters = new ArrayList<>();
+        for (final String field : allowedFields) {
+            final ExecutableElement getter = this.resolveGetter(field, publicGetters);
+            if (getter == null) {
+                if (declaredAllowedFields.isEmpty()) {
+                    this.processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.NOTE,
+                        "No public getter for derived field '" + field + "', accessors will not be generated",
+                        typeElement,
+                        annotationMirror
+                    );
+                } else {
+                    this.processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "No public getter without parameter for allowed field '" + field + "'",
+                        typeElement,
+                        annotationMirror
+                    );
+                }
+                return;
+            }
+            getters.add(getter);
+        }
+        for (final String field : defaultFields) {
+            if (!allowedFields.contains(field)) {
+                this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.WARNING,
+                    "Default field '" + field + "' is not an allowed field",
+                    typeElement,
+                    annotationMirror
+                );
+            }
+        }
+        final String identifierField = this.readString(annotationMirror, "identifierField");
+        if (!identifierField.isEmpty() && !allowedFields.contains(identifierField)) {
+            this.processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.WARNING,
+                "Identifier field '" + identifierField + "' is not an allowed field, instances will be identified by reference",
+                typeElement,
+                annotationMirror
+            );
+        }
+
+        this.writeAccessors(typeElement, new ArrayList<>(allowedFields), defaultFields, getters);
+    }
+
+    /**
+     * Check if the given class can be referenced from its own package.
+     *
+     * @param typeElement The class
+     * @return {@code true} if the class can be referenced
+     * @since 26.10.17
+     */
+    private boolean isAccessible(final TypeElement typeElement) {
+        Element element = typeElement;
+        while (element instanceof TypeElement) {
+            final TypeElement current = (TypeElement) element;
+            if (current.getModifiers().contains(Modifier.PRIVATE)
+                || (current.getNestingKind() != NestingKind.TOP_LEVEL && current.getNestingKind() != NestingKind.MEMBER)) {
+                return false;
+            }
+            element = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Find the {@code @Partialize} annotation, declared or inherited.
+     *
+     * @param typeElement The annotated class
+     * @return The annotation, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    private AnnotationMirror findAnnotation(final TypeElement typeElement) {
+        for (final AnnotationMirror annotationMirror : this.processingEnv.getElementUtils().getAllAnnotationMirrors(typeElement)) {
+            final TypeElement annotationType = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(PartializeProcessor.ANNOTATION_NAME)) {
+                return annotationMirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read an array of strings from the given annotation.
+     *
+     * @param annotationMirror The annotation
+     * @param name             The name of the annotation attribute
+     * @return The strings, empty if the attribute is not set
+     * @since 26.10.17
+     */
+    private List<String> readStringArray(final AnnotationMirror annotationMirror, final String name) {
+        final List<String> values = new ArrayList<>();
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                final Object value = entry.getValue().getValue();
+                if (value instanceof List) {
+                    for (final Object item : (List<?>) value) {
+                        values.add((String) ((AnnotationValue) item).getValue());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Read a string value of the given annotation.
+     *
+     * @param annotationMirror The annotation
+     * @param name             The name of the value
+     * @return The value, an empty string if not set
+     * @since 26.10.17
+     */
+    private String readString(final AnnotationMirror annotationMirror, final String name) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name) && entry.getValue().getValue() instanceof String) {
+                return (String) entry.getValue().getValue();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Derive allowed fields from method names, as done at runtime when
+     * no allowed fields are declared.
+     *
+     * @param typeElement   The annotated class
+     * @param allowedFields The set to fill with derived fields
+     * @since 26.10.17
+     */
+    private void deriveAllowedFields(final TypeElement typeElement, final Set<String> allowedFields) {
+        TypeElement current = typeElement;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (final ExecutableElement m : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                final String methodName = m.getSimpleName().toString();
+                for (final String methodPrefix : PartializeProcessor.METHOD_PREFIXES) {
+                    if (methodName.startsWith(methodPrefix) && methodName.length() > methodPrefix.length()) {
+                        final char[] c = methodName.substring(methodPrefix.length()).toCharArray();
+                        c[0] = Character.toLowerCase(c[0]);
+                        allowedFields.add(new String(c));
+                    }
+                }
+            }
+            final TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+    }
+
+    /**
+     * Resolve the getter of the given field, as done at runtime.
+     *
+     * @param field         The field name
+     * @param publicGetters Public methods without parameter, indexed by name
+     * @return The getter, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    private ExecutableElement resolveGetter(final String field, final Map<String, ExecutableElement> publicGetters) {
+        if (field.isEmpty()) {
+            return null;
+        }
+        final String capitalizedField = Character.toTitleCase(field.charAt(0)) + field.substring(1);
+        for (final String methodPrefix : PartializeProcessor.METHOD_PREFIXES) {
+            final ExecutableElement getter = publicGetters.get(methodPrefix + capitalizedField);
+            if (getter != null) {
+                return getter;
+            }
+        }
+        return publicGetters.get(field);
+    }
+
+    /**
+     * Generate the accessors of the given class.
+     *
+     * @param typeElement   The annotated class
+     * @param allowedFields The allowed fields
+     * @param defaultFields The default fields
+     * @param getters       The getter of each allowed field
+     * @since 26.10.17
+     */
+    private void writeAccessors(final TypeElement typeElement,
+                                final List<String> allowedFields,
+                                final List<String> defaultFields,
+                                final List<ExecutableElement> getters) {
+        final PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(typeElement);
+        final String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        final String binaryName = this.processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_')
+            + PartializeProcessor.GENERATED_SUFFIX;
+        final String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        final String typeName = typeElement.getQualifiedName().toString();
+        final boolean generated = this.processingEnv.getElementUtils().getTypeElement("javax.annotation.processing.Generated") != null;
+
+        final StringBuilder sb = new StringBuilder(1024);
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        if (generated) {
+            sb.append("@javax.annotation.processing.Generated(\"").append(PartializeProcessor.class.getName()).append("\")\n");
+        }
+        if (!typeElement.getTypeParameters().isEmpty()) {
+            sb.append("@SuppressWarnings(\"rawtypes\")\n");
+        }
+        sb.append("public final class ").append(simpleName)
+            .append(" implements ").append(PartializeProcessor.ACCESSORS_NAME).append('<').append(typeName).append("> {\n\n");
+
+        sb.append("    private static final String[] ALLOWED_FIELDS = {");
+        this.appendStrings(sb, allowedFields);
+        sb.append("};\n\n");
+        sb.append("    private static final String[] DEFAULT_FIELDS = {");
+        this.appendStrings(sb, defaultFields);
+        sb.append("};\n\n");
+
+        sb.append("    @Override\n    public Class<").append(typeName).append("> getManagedObjectClass() {\n")
+            .append("        return ").append(typeName).append(".class;\n    }\n\n");
+        sb.append("    @Override\n    public String[] getAllowedFields() {\n")
+            .append("        return ALLOWED_FIELDS.clone();\n    }\n\n");
+        sb.append("    @Override\n    public String[] getDefaultFields() {\n")
+            .append("        return DEFAULT_FIELDS.clone();\n    }\n\n");
+
+        sb.append("    @Override\n    public boolean isStatic(final int fieldIndex) {\n");
+        boolean hasStaticGetter = false;
+        for (int idx = 0; idx < getters.size(); ++idx) {
+            if (getters.get(idx).getModifiers().contains(Modifier.STATIC)) {
+                if (!hasStaticGetter) {
+                    sb.append("        switch (fieldIndex) {\n");
+                    hasStaticGetter = true;
+                }
+                sb.append("            case ").append(idx).append(":\n");
+            }
+        }
+        if (hasStaticGetter) {
+            sb.append("                return true;\n")
+                .append("            default:\n")
+                .append("                return false;\n")
+                .append("        }\n    }\n\n");
+        } else {
+            sb.append("        return false;\n    }\n\n");
+        }
+
+        sb.append("    @Override\n    public Object getValue(final int fieldIndex, final ").append(typeName).append(" instance) {\n")
+            .append("        switch (fieldIndex) {\n");
+        for (int idx = 0; idx < getters.size(); ++idx) {
+            final ExecutableElement getter = getters.get(idx);
+            sb.append("            case ").append(idx).append(":\n")
+                .append("                return ")
+                .append(getter.getModifiers().contains(Modifier.STATIC) ? typeName : "instance")
+                .append('.').append(getter.getSimpleName()).append("();\n");
+        }
+        sb.append("            default:\n")
+            .append("                throw new IndexOutOfBoundsException(\"Field index: \" + fieldIndex);\n")
+            .append("        }\n    }\n}\n");
+
+        try {
+            final JavaFileObject sourceFile = this.processingEnv.getFiler().createSourceFile(qualifiedName, typeElement);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(sb.toString());
+            }
+            this.generatedClasses.add(qualifiedName);
+        } catch (final IOException ex) {
+            this.processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR,
+                "Can't generate accessors: " + ex.getMessage(),
+                typeElement
+            );
+        }
+    }
+
+    /**
+     * Append the given strings as Java string literals.
+     *
+     * @param sb      The builder to append to
+     * @param strings The strings
+     * @since 26.10.17
+     */
+    private void appendStrings(final StringBuilder sb, final List<String> strings) {
+        for (int idx = 0; idx < strings.size(); ++idx) {
+            if (idx > 0) {
+                sb.append(", ");
+            }
+            sb.append('"');
+            for (final char c : strings.get(idx).toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20 || c > 0x7e) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    /**
+     * Register the generated classes with {@code ServiceLoader}. Entries
+     * already present, from a previous incremental build, are kept.
+     *
+     * @since 26.10.17
+     */
+    private void writeServiceFile() {
+        final String resourceName = "META-INF/services/" + PartializeProcessor.ACCESSORS_NAME;
+        final Set<String> providers = new LinkedHashSet<>();
+        try {
+            final FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String provider = line.trim();
+                    if (!provider.isEmpty() && !provider.startsWith("#")) {
+                        providers.add(provider);
+                    }
+                }
+            }
+        } catch (final IOException ignore) {
+            // No service file yet
+        }
+        providers.addAll(this.generatedClasses);
+
+        try {
+            final FileObject serviceFile = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (Writer writer = serviceFile.openWriter()) {
+                for (final String provider : providers) {
+                    writer.write(provider);
+                    writer.write('\n');
+                }
+            }
+        } catch (final IOException ex) {
+            this.processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR,
+                "Can't register generated accessors: " + ex.getMessage()
+            );
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.zero_x_baadf00d.partialize.processor.PartializeProcessor;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PartializeProcessorTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PartializeProcessorTest {
+
+    /**
+     * Stub of the {@code @Partialize} annotation.
+     *
+     * @since 26.10.17
+     */
+    private static final String ANNOTATION_SOURCE = "package com.zero_x_baadf00d.partialize.annotation;\n"
+        + "@java.lang.annotation.Inherited\n"
+        + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+        + "public @interface Partialize {\n"
+        + "    String[] allowedFields() default {};\n"
+        + "    String[] defaultFields() default {};\n"
+        + "    String identifierField() default \"\";\n"
+        + "}\n";
+
+    /**
+     * Stub of the generated accessors interface.
+     *
+     * @since 26.10.17
+     */
+    private static final String ACCESSORS_SOURCE = "package com.zero_x_baadf00d.partialize.accessor;\n"
+        + "public interface GeneratedAccessors<T> {\n"
+        + "    Class<T> getManagedObjectClass();\n"
+        + "    String[] getAllowedFields();\n"
+        + "    String[] getDefaultFields();\n"
+        + "    boolean isStatic(int fieldIndex);\n"
+        + "    Object getValue(int fieldIndex, T instance);\n"
+        + "}\n";
+
+    /**
+     * Compile the given sources with the processor.
+     *
+     * @param outputDirectory The output directory
+     * @param diagnostics     The diagnostics collector
+     * @param sources         The sources, first line is the qualified class name
+     * @return {@code true} if the compilation succeeded
+     * @throws IOException If the output directory can't be used
+     * @since 26.10.17
+     */
+    private boolean compile(final Path outputDirectory,
+                            final DiagnosticCollector<JavaFileObject> diagnostics,
+                            final String... sources) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(outputDirectory.toFile()));
+        fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(outputDirectory.toFile()));
+
+        final List<JavaFileObject> compilationUnits = new ArrayList<>();
+        compilationUnits.add(new SourceFile("com.zero_x_baadf00d.partialize.annotation.Partialize", PartializeProcessorTest.ANNOTATION_SOURCE));
+        compilationUnits.add(new SourceFile("com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors", PartializeProcessorTest.ACCESSORS_SOURCE));
+        for (final String source : sources) {
+            final int newLine = source.indexOf('\n');
+            compilationUnits.add(new SourceFile(source.substring(0, newLine), source.substring(newLine + 1)));
+        }
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(
+            null,
+            fileManager,
+            diagnostics,
+            Arrays.asList("-Xlint:all,-processing", "-Werror"),
+            null,
+            compilationUnits
+        );
+        task.setProcessors(Collections.singletonList(new PartializeProcessor()));
+        try {
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    /**
+     * Check if a diagnostic of the given kind contains the given message.
+     *
+     * @param diagnostics The diagnostics collector
+     * @param kind        The kind of diagnostic
+     * @param message     The message to look for
+     * @return {@code true} if the message has been found
+     * @since 26.10.17
+     */
+    private boolean hasDiagnostic(final DiagnosticCollector<JavaFileObject> diagnostics,
+                                  final Diagnostic.Kind kind,
+                                  final String message) {
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == kind && diagnostic.getMessage(null).contains(message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void partializeProcessorTest001() throws Exception {
+        final Path outputDirectory = Files.createTempDirectory("partialize-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        final boolean success = this.compile(
+            outputDirectory,
+            diagnostics,
+            "sample.Pojo\n"
+                + "package sample;\n"
+                + "@com.zero_x_baadf00d.partialize.annotation.Partialize(allowedFields = {\"name\", \"active\", \"version\"}, defaultFields = {\"name\"})\n"
+                + "public class Pojo {\n"
+                + "    public String getName() { return \"John\"; }\n"
+                + "    public boolean isActive() { return true; }\n"
+                + "    public static int getVersion() { return 42; }\n"
+                + "}\n"
+        );
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), success);
+
+        final Path serviceFile = outputDirectory.resolve("META-INF/services/com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors");
+        Assert.assertEquals(
+            Collections.singletonList("sample.Pojo_PartializeAccessors"),
+            Files.readAllLines(serviceFile, StandardCharsets.UTF_8)
+        );
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toUri().toURL()})) {
+            final Class<?> pojoClass = classLoader.loadClass("sample.Pojo");
+            final Class<?> accessorsClass = classLoader.loadClass("sample.Pojo_PartializeAccessors");
+            final Object accessors = accessorsClass.getConstructor().newInstance();
+            final Object pojo = pojoClass.getConstructor().newInstance();
+            final Method getValue = accessorsClass.getMethod("getValue", int.class, pojoClass);
+
+            Assert.assertEquals(pojoClass, accessorsClass.getMethod("getManagedObjectClass").invoke(accessors));
+            Assert.assertArrayEquals(new String[]{"name", "active", "version"}, (String[]) accessorsClass.getMethod("getAllowedFields").invoke(accessors));
+            Assert.assertArrayEquals(new String[]{"name"}, (String[]) accessorsClass.getMethod("getDefaultFields").invoke(accessors));
+            Assert.assertEquals("John", getValue.invoke(accessors, 0, pojo));
+            Assert.assertEquals(true, getValue.invoke(accessors, 1, pojo));
+            Assert.assertEquals(42, getValue.invoke(accessors, 2, null));
+            Assert.assertEquals(false, accessorsClass.getMethod("isStatic", int.class).invoke(accessors, 0));
+            Assert.assertEquals(true, accessorsClass.getMethod("isStatic", int.class).invoke(accessors, 2));
+        }
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void partializeProcessorTest002() throws Exception {
+        final Path outputDirectory = Files.createTempDirectory("partialize-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        final boolean success = this.compile(
+            outputDirectory,
+            diagnostics,
+            "sample.Pojo\n"
+                + "package sample;\n"
+                + "@com.zero_x_baadf00d.partialize.annotation.Partialize(allowedFields = {\"name\", \"missing\"})\n"
+                + "public class Pojo {\n"
+                + "    public String getName() { return \"John\"; }\n"
+                + "    public String getMissing(final int idx) { return null; }\n"
+                + "}\n"
+        );
+
+        Assert.assertFalse(success);
+        Assert.assertTrue(this.hasDiagnostic(diagnostics, Diagnostic.Kind.ERROR, "allowed field 'missing'"));
+        Assert.assertFalse(Files.exists(outputDirectory.resolve("sample/Pojo_PartializeAccessors.java")));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void partializeProcessorTest003() throws Exception {
+        final Path outputDirectory = Files.createTempDirectory("partialize-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        final boolean success = this.compile(
+            outputDirectory,
+            diagnostics,
+            "sample.Outer\n"
+                + "package sample;\n"
+                + "public class Outer {\n"
+                + "    @com.zero_x_baadf00d.partialize.annotation.Partialize(defaultFields = {\"unknown\"})\n"
+                + "    public static class Inner {\n"
+                + "        public String getName() { return \"John\"; }\n"
+                + "        public boolean canDelete() { return false; }\n"
+                + "    }\n"
+                + "    @com.zero_x_baadf00d.partialize.annotation.Partialize\n"
+                + "    private static class Hidden {\n"
+                + "        public String getName() { return \"John\"; }\n"
+                + "    }\n"
+                + "}\n"
+        );
+
+        Assert.assertFalse(success);
+        Assert.assertTrue(this.hasDiagnostic(diagnostics, Diagnostic.Kind.WARNING, "Default field 'unknown'"));
+        Assert.assertTrue(Files.exists(outputDirectory.resolve("sample/Outer_Inner_PartializeAccessors.java")));
+        Assert.assertFalse(Files.exists(outputDirectory.resolve("sample/Outer_Hidden_PartializeAccessors.java")));
+
+        final String generatedSource = new String(
+            Files.readAllBytes(outputDirectory.resolve("sample/Outer_Inner_PartializeAccessors.java")),
+            StandardCharsets.UTF_8
+        );
+        Assert.assertTrue(generatedSource.contains("return instance.getName();"));
+        Assert.assertTrue(generatedSource.contains("return instance.canDelete();"));
+        Assert.assertFalse(generatedSource.contains("java.lang.reflect"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void partializeProcessorTest004() throws Exception {
+        final Path outputDirectory = Files.createTempDirectory("partialize-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        final boolean success = this.compile(
+            outputDirectory,
+            diagnostics,
+            "sample.Pojo\n"
+                + "package sample;\n"
+                + "@com.zero_x_baadf00d.partialize.annotation.Partialize(allowedFields = {\"id\", \"name\"}, identifierField = \"id\")\n"
+                + "public class Pojo {\n"
+                + "    public int getId() { return 1; }\n"
+                + "    public String getName() { return \"John\"; }\n"
+                + "}\n"
+        );
+
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), success);
+        Assert.assertFalse(this.hasDiagnostic(diagnostics, Diagnostic.Kind.WARNING, "Identifier field"));
+        Assert.assertTrue(Files.exists(outputDirectory.resolve("sample/Pojo_PartializeAccessors.java")));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void partializeProcessorTest005() throws Exception {
+        final Path outputDirectory = Files.createTempDirectory("partialize-processor");
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        final boolean success = this.compile(
+            outputDirectory,
+            diagnostics,
+            "sample.Pojo\n"
+                + "package sample;\n"
+                + "@com.zero_x_baadf00d.partialize.annotation.Partialize(allowedFields = {\"id\", \"name\"}, identifierField = \"uuid\")\n"
+                + "public class Pojo {\n"
+                + "    public int getId() { return 1; }\n"
+                + "    public String getName() { return \"John\"; }\n"
+                + "}\n"
+        );
+
+        Assert.assertFalse(success);
+        Assert.assertTrue(this.hasDiagnostic(diagnostics, Diagnostic.Kind.WARNING, "Identifier field 'uuid' is not an allowed field"));
+    }
+
+    /**
+     * In-memory source file.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class SourceFile extends SimpleJavaFileObject {
+
+        /**
+         * The source code.
+         *
+         * @since 26.10.17
+         */
+        private final String source;
+
+        /**
+         * Build a new instance.
+         *
+         * @param className The qualified class name
+         * @param source    The source code
+         * @since 26.10.17
+         */
+        SourceFile(final String className, final String source) {
+            super(URI.create("string:///" + className.replace('.', File.separatorChar) + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return this.source;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Resolved getter. Getters generated at compile time are called
+ * directly. Otherwise, when possible, the getter is bound to a
+ * {@code Function} spun by {@code LambdaMetafactory}, or else,
+ * a {@code MethodHandle} is used.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class Accessor {
+
+    /**
+     * Lookup used to resolve getters.
+     *
+     * @since 26.10.17
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Erased type of all getter handles.
+     *
+     * @since 26.10.17
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The getter, as a function.
+     *
+     * @since 26.10.17
+     */
+    private final Function<Object, Object> function;
+
+    /**
+     * The getter, as a handle of type {@code (Object)Object}. Only
+     * used when the getter can't be bound to a function.
+     *
+     * @since 26.10.17
+     */
+    private final MethodHandle handle;
+
+    /**
+     * Is the getter static.
+     *
+     * @since 26.10.17
+     */
+    private final boolean staticGetter;
+
+    /**
+     * Declared class of the values returned by the getter.
+     *
+     * @since 26.10.17
+     */
+    private final Class<?> valueClass;
+
+    /**
+     * Build a new instance.
+     *
+     * @param function     The getter, as a function
+     * @param handle       The getter, as a handle
+     * @param staticGetter Is the getter static
+     * @param valueClass   Declared class of the values returned by the getter
+     * @since 26.10.17
+     */
+    private Accessor(final Function<Object, Object> function, final MethodHandle handle, final boolean staticGetter,
+                     final Class<?> valueClass) {
+        this.function = function;
+        this.handle = handle;
+        this.staticGetter = staticGetter;
+        this.valueClass = valueClass;
+    }
+
+    /**
+     * Resolve the given getter.
+     *
+     * @param method The getter
+     * @return The resolved accessor
+     * @throws IllegalAccessException If the getter is not accessible
+     * @since 26.10.17
+     */
+    static Accessor of(final Method method) throws IllegalAccessException {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final boolean staticGetter = Modifier.isStatic(method.getModifiers());
+        Accessor.class.getModule().addReads(declaringClass.getModule());
+
+        final MethodHandle methodHandle = Accessor.LOOKUP.unreflect(method);
+        if (!staticGetter && method.getReturnType() != void.class && Modifier.isPublic(declaringClass.getModifiers())) {
+            final Function<Object, Object> function = Accessor.spinFunction(methodHandle, method);
+            if (function != null) {
+                return new Accessor(function, null, false, method.getReturnType());
+            }
+        }
+
+        final MethodHandle erasedHandle = staticGetter
+            ? MethodHandles.dropArguments(methodHandle, 0, Object.class).asType(Accessor.GETTER_TYPE)
+            : methodHandle.asType(Accessor.GETTER_TYPE);
+        return new Accessor(null, erasedHandle, staticGetter, method.getReturnType());
+    }
+
+    /**
+     * Build an accessor calling a getter generated at compile time.
+     *
+     * @param generatedAccessors The generated accessors
+     * @param fieldIndex         The index of the field
+     * @return The accessor
+     * @since 26.10.17
+     */
+    static Accessor of(final GeneratedAccessors<Object> generatedAccessors, final int fieldIndex) {
+        return new Accessor(
+            instance -> generatedAccessors.getValue(fieldIndex, instance),
+            null,
+            generatedAccessors.isStatic(fieldIndex),
+            Object.class
+        );
+    }
+
+    /**
+     * Bind the given getter to a {@code Function}.
+     *
+     * @param methodHandle The getter handle
+     * @param method       The getter
+     * @return The function, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> spinFunction(final MethodHandle methodHandle, final Method method) {
+        final Class<?> returnType = MethodType.methodType(method.getReturnType()).wrap().returnType();
+        try {
+            final CallSite callSite = LambdaMetafactory.metafactory(
+                Accessor.LOOKUP,
+                "apply",
+                MethodType.methodType(Function.class),
+                Accessor.GETTER_TYPE,
+                methodHandle,
+                MethodType.methodType(returnType, method.getDeclaringClass())
+            );
+            return (Function<Object, Object>) callSite.getTarget().invokeExact();
+        } catch (final Throwable ignore) {
+            // LambdaConversionException or linkage error, the method handle will be used
+            return null;
+        }
+    }
+
+    /**
+     * Is the getter static.
+     *
+     * @return {@code true} if the getter is static
+     * @since 26.10.17
+     */
+    boolean isStatic() {
+        return this.staticGetter;
+    }
+
+    /**
+     * Get the declared class of the values returned by the getter.
+     * Getters generated at compile time are declared as returning
+     * {@code Object}.
+     *
+     * @return The declared class
+     * @since 26.10.17
+     */
+    Class<?> getValueClass() {
+        return this.valueClass;
+    }
+
+    /**
+     * Call the getter on the given instance.
+     *
+     * @param instance The instance, can be {@code null} if the getter is static
+     * @return The value returned by the getter
+     * @throws InvocationTargetException If the getter throws an exception
+     * @since 26.10.17
+     */
+    Object get(final Object instance) throws InvocationTargetException {
+        try {
+            if (this.function != null) {
+                return this.function.apply(instance);
+            }
+            return (Object) this.handle.invokeExact(instance);
+        } catch (final Throwable ex) {
+            throw new InvocationTargetException(ex);
+        }
+    }
+}
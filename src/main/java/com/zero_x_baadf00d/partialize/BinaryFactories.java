@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Shared factories of binary format generators. Each factory lives in
+ * its own holder, so the optional dataformat modules are only loaded
+ * when the matching format is used.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class BinaryFactories {
+
+    /**
+     * Build a new instance.
+     *
+     * @since 26.10.17
+     */
+    private BinaryFactories() {
+    }
+
+    /**
+     * Get the factory of the given format.
+     *
+     * @param outputFormat The output format
+     * @return The factory, otherwise, {@code null} for text formats
+     * @since 26.10.17
+     */
+    static JsonFactory of(final OutputFormat outputFormat) {
+        switch (outputFormat) {
+            case SMILE:
+                return SmileFactoryHolder.INSTANCE;
+            case CBOR:
+                return CborFactoryHolder.INSTANCE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Check that the factory of the given format can be loaded.
+     *
+     * @param outputFormat The output format
+     * @throws IllegalStateException If the Jackson dataformat module of the format is missing
+     * @since 26.10.17
+     */
+    static void check(final OutputFormat outputFormat) {
+        try {
+            BinaryFactories.of(outputFormat);
+        } catch (final NoClassDefFoundError ex) {
+            throw new IllegalStateException(
+                "Output format " + outputFormat + " requires com.fasterxml.jackson.dataformat:"
+                    + BinaryFactories.artifactOf(outputFormat) + " on the classpath",
+                ex
+            );
+        }
+    }
+
+    /**
+     * Get the artifact of the Jackson dataformat module of the given format.
+     *
+     * @param outputFormat The output format
+     * @return The artifact identifier
+     * @since 26.10.17
+     */
+    private static String artifactOf(final OutputFormat outputFormat) {
+        return outputFormat == OutputFormat.SMILE ? "jackson-dataformat-smile" : "jackson-dataformat-cbor";
+    }
+
+    /**
+     * Holder of the Smile factory.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class SmileFactoryHolder {
+
+        /**
+         * Smile factory with shared names and shared values enabled.
+         *
+         * @since 26.10.17
+         */
+        private static final JsonFactory INSTANCE = SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build();
+    }
+
+    /**
+     * Holder of the CBOR factory.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class CborFactoryHolder {
+
+        /**
+         * CBOR factory.
+         *
+         * @since 26.10.17
+         */
+        private static final JsonFactory INSTANCE = new CBORFactory();
+    }
+}
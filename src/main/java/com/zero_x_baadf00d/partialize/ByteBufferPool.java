@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of byte buffers used to write partial documents to
+ * channels. Buffers are allocated on demand, at most a fixed number
+ * of released buffers are retained for reuse.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class ByteBufferPool {
+
+    /**
+     * Default size of a buffer, in bytes.
+     *
+     * @since 26.10.17
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Default maximum number of retained buffers.
+     *
+     * @since 26.10.17
+     */
+    public static final int DEFAULT_MAXIMUM_POOLED_BUFFERS = 32;
+
+    /**
+     * Size of a buffer, in bytes.
+     *
+     * @since 26.10.17
+     */
+    private final int bufferSize;
+
+    /**
+     * Are buffers allocated outside of the heap.
+     *
+     * @since 26.10.17
+     */
+    private final boolean direct;
+
+    /**
+     * Released buffers, ready to be reused.
+     *
+     * @since 26.10.17
+     */
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * Build a pool of heap buffers with default settings.
+     *
+     * @since 26.10.17
+     */
+    public ByteBufferPool() {
+        this(ByteBufferPool.DEFAULT_BUFFER_SIZE, ByteBufferPool.DEFAULT_MAXIMUM_POOLED_BUFFERS, false);
+    }
+
+    /**
+     * Build a new instance.
+     *
+     * @param bufferSize           Size of a buffer, in bytes
+     * @param maximumPooledBuffers Maximum number of retained buffers
+     * @param direct               Allocate buffers outside of the heap
+     * @since 26.10.17
+     */
+    public ByteBufferPool(final int bufferSize, final int maximumPooledBuffers, final boolean direct) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.buffers = new ArrayBlockingQueue<>(maximumPooledBuffers > 0 ? maximumPooledBuffers : 1);
+    }
+
+    /**
+     * Get a buffer, ready to be written. A pooled buffer is reused
+     * if available, otherwise, a new one is allocated.
+     *
+     * @return A cleared buffer
+     * @since 26.10.17
+     */
+    public ByteBuffer acquire() {
+        final ByteBuffer byteBuffer = this.buffers.poll();
+        if (byteBuffer != null) {
+            return byteBuffer;
+        }
+        return this.direct
+            ? ByteBuffer.allocateDirect(this.bufferSize)
+            : ByteBuffer.allocate(this.bufferSize);
+    }
+
+    /**
+     * Give back a buffer to the pool. The buffer must not be used
+     * anymore by the caller. Buffers exceeding the pool capacity, or
+     * not allocated by this pool, are left to the garbage collector.
+     *
+     * @param byteBuffer The buffer to release
+     * @since 26.10.17
+     */
+    public void release(final ByteBuffer byteBuffer) {
+        if (byteBuffer != null && byteBuffer.capacity() == this.bufferSize && byteBuffer.isDirect() == this.direct) {
+            byteBuffer.clear();
+            this.buffers.offer(byteBuffer);
+        }
+    }
+
+    /**
+     * Get the size of a buffer.
+     *
+     * @return The size of a buffer, in bytes
+     * @since 26.10.17
+     */
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Get the number of buffers ready to be reused.
+     *
+     * @return The number of pooled buffers
+     * @since 26.10.17
+     */
+    public int getPooledBufferCount() {
+        return this.buffers.size();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Output stream filling a pooled buffer and handing it to a channel
+ * each time it is full. Closing the stream writes the remaining bytes
+ * and gives the buffer back to the pool, the channel is left open.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class ChannelOutputStream extends OutputStream {
+
+    /**
+     * The channel to write to.
+     *
+     * @since 26.10.17
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The pool the buffer comes from.
+     *
+     * @since 26.10.17
+     */
+    private final ByteBufferPool byteBufferPool;
+
+    /**
+     * The current buffer, {@code null} once the stream is closed.
+     *
+     * @since 26.10.17
+     */
+    private ByteBuffer byteBuffer;
+
+    /**
+     * Build a new instance.
+     *
+     * @param channel        The channel to write to
+     * @param byteBufferPool The pool to take the buffer from
+     * @since 26.10.17
+     */
+    ChannelOutputStream(final WritableByteChannel channel, final ByteBufferPool byteBufferPool) {
+        this.channel = channel;
+        this.byteBufferPool = byteBufferPool;
+        this.byteBuffer = byteBufferPool.acquire();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.ensureOpen();
+        if (!this.byteBuffer.hasRemaining()) {
+            this.drain();
+        }
+        this.byteBuffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!this.byteBuffer.hasRemaining()) {
+                this.drain();
+            }
+            final int chunkLength = Math.min(remaining, this.byteBuffer.remaining());
+            this.byteBuffer.put(b, offset, chunkLength);
+            offset += chunkLength;
+            remaining -= chunkLength;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.ensureOpen();
+        this.drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.byteBuffer != null) {
+            try {
+                this.drain();
+            } finally {
+                this.byteBufferPool.release(this.byteBuffer);
+                this.byteBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Write the buffered bytes to the channel.
+     *
+     * @throws IOException If the channel can't be written
+     * @since 26.10.17
+     */
+    private void drain() throws IOException {
+        this.byteBuffer.flip();
+        try {
+            while (this.byteBuffer.hasRemaining()) {
+                this.channel.write(this.byteBuffer);
+            }
+        } finally {
+            this.byteBuffer.clear();
+        }
+    }
+
+    /**
+     * Check that the stream is still open.
+     *
+     * @throws IOException If the stream is closed
+     * @since 26.10.17
+     */
+    private void ensureOpen() throws IOException {
+        if (this.byteBuffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
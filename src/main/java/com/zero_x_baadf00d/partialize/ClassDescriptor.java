@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors;
+import org.apache.commons.text.WordUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Metadata about a class, computed once per class and reused by
+ * every rendering of its instances. Accessors generated at compile
+ * time are used when available, otherwise, the class is introspected.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class ClassDescriptor {
+
+    /**
+     * Method prefixes.
+     *
+     * @since 26.10.17
+     */
+    private static final String[] METHOD_PREFIXES = {"get", "is", "has", "can"};
+
+    /**
+     * Computed descriptors.
+     *
+     * @since 26.10.17
+     */
+    private static final ClassValue<ClassDescriptor> DESCRIPTORS = new ClassValue<>() {
+
+        @Override
+        protected ClassDescriptor computeValue(final Class<?> type) {
+            return new ClassDescriptor(type);
+        }
+    };
+
+    /**
+     * The described class.
+     *
+     * @since 26.10.17
+     */
+    private final Class<?> clazz;
+
+    /**
+     * Is the class annotated with {@code @Partialize}.
+     *
+     * @since 26.10.17
+     */
+    private final boolean annotated;
+
+    /**
+     * Allowed field names.
+     *
+     * @since 26.10.17
+     */
+    private final List<String> allowedFields;
+
+    /**
+     * Case-insensitive index of the allowed field names.
+     *
+     * @since 26.10.17
+     */
+    private final FieldIndex fieldIndex;
+
+    /**
+     * Fields rendered when no field has been requested. The declared
+     * default fields, otherwise, all allowed fields.
+     *
+     * @since 26.10.17
+     */
+    private final FieldMask defaultMask;
+
+    /**
+     * Index of the allowed field identifying instances in normalized
+     * documents, {@code -1} if instances are identified by reference.
+     *
+     * @since 26.10.17
+     */
+    private final int identifierIndex;
+
+    /**
+     * Declared default field names. Empty if the class does not
+     * declare default fields.
+     *
+     * @since 26.10.17
+     */
+    private final List<String> defaultFields;
+
+    /**
+     * Resolved getter of each allowed field, {@code null} if
+     * no getter can be used.
+     *
+     * @since 26.10.17
+     */
+    private final Accessor[] getters;
+
+    /**
+     * Reason why a getter can't be used, {@code null} if the
+     * getter has been resolved.
+     *
+     * @since 26.10.17
+     */
+    private final Exception[] failures;
+
+    /**
+     * Build a new instance.
+     *
+     * @param clazz The class to describe
+     * @since 26.10.17
+     */
+    @SuppressWarnings("unchecked")
+    private ClassDescriptor(final Class<?> clazz) {
+        this.clazz = clazz;
+
+        final GeneratedAccessors<Object> generatedAccessors = (GeneratedAccessors<Object>) GeneratedAccessorsHolder.ACCESSORS.get(clazz);
+        if (generatedAccessors != null) {
+            this.annotated = true;
+            this.allowedFields = List.of(generatedAccessors.getAllowedFields());
+            this.defaultFields = List.of(generatedAccessors.getDefaultFields());
+            this.fieldIndex = new FieldIndex(this.allowedFields);
+            this.defaultMask = this.buildDefaultMask();
+            this.getters = new Accessor[this.allowedFields.size()];
+            this.failures = new Exception[this.allowedFields.size()];
+            for (int idx = 0; idx < this.getters.length; ++idx) {
+                this.getters[idx] = Accessor.of(generatedAccessors, idx);
+            }
+            this.identifierIndex = this.indexOfIdentifier(clazz.getAnnotation(
+                com.zero_x_baadf00d.partialize.annotation.Partialize.class
+            ));
+            return;
+        }
+
+        final com.zero_x_baadf00d.partialize.annotation.Partialize annotation = clazz.getAnnotation(
+            com.zero_x_baadf00d.partialize.annotation.Partialize.class
+        );
+        this.annotated = annotation != null;
+        if (this.annotated) {
+            final Set<String> fields = new LinkedHashSet<>(Arrays.asList(annotation.allowedFields()));
+            if (fields.isEmpty()) {
+                Class<?> clazzActual = clazz;
+                do {
+                    for (final Method m : clazzActual.getDeclaredMethods()) {
+                        final String methodName = m.getName();
+                        for (final String methodPrefix : ClassDescriptor.METHOD_PREFIXES) {
+                            if (methodName.startsWith(methodPrefix) && methodName.length() > methodPrefix.length()) {
+                                final char[] c = methodName.substring(methodPrefix.length()).toCharArray();
+                                c[0] = Character.toLowerCase(c[0]);
+                                fields.add(new String(c));
+                            }
+                        }
+                    }
+                    clazzActual = clazzActual.getSuperclass();
+                } while (clazzActual != null && clazzActual != Object.class);
+            }
+            this.allowedFields = Collections.unmodifiableList(new ArrayList<>(fields));
+            this.defaultFields = List.of(annotation.defaultFields());
+        } else {
+            this.allowedFields = Collections.emptyList();
+            this.defaultFields = Collections.emptyList();
+        }
+
+        this.fieldIndex = new FieldIndex(this.allowedFields);
+        this.defaultMask = this.buildDefaultMask();
+        this.identifierIndex = this.indexOfIdentifier(annotation);
+        this.getters = new Accessor[this.allowedFields.size()];
+        this.failures = new Exception[this.allowedFields.size()];
+        if (this.getters.length > 0) {
+            final Map<String, Method> publicGetters = new HashMap<>();
+            for (final Method m : clazz.getMethods()) {
+                if (m.getParameterCount() == 0 && (!m.isBridge() || !publicGetters.containsKey(m.getName()))) {
+                    publicGetters.put(m.getName(), m);
+                }
+            }
+            for (int idx = 0; idx < this.getters.length; ++idx) {
+                this.resolveGetter(idx, publicGetters);
+            }
+        }
+    }
+
+    /**
+     * Get the descriptor of the given class.
+     *
+     * @param clazz The class
+     * @return The descriptor of the class
+     * @since 26.10.17
+     */
+    static ClassDescriptor of(final Class<?> clazz) {
+        return ClassDescriptor.DESCRIPTORS.get(clazz);
+    }
+
+    /**
+     * Build the mask of fields rendered when no field has been requested.
+     *
+     * @return The mask
+     * @since 26.10.17
+     */
+    private FieldMask buildDefaultMask() {
+        if (this.defaultFields.isEmpty()) {
+            return FieldMask.all(this.allowedFields.size());
+        }
+        final FieldMask fieldMask = new FieldMask(this.allowedFields.size());
+        for (final String defaultField : this.defaultFields) {
+            final int idx = this.fieldIndex.indexOf(defaultField);
+            if (idx >= 0) {
+                fieldMask.set(idx);
+            }
+        }
+        return fieldMask;
+    }
+
+    /**
+     * Get the index of the declared identifier field.
+     *
+     * @param annotation The annotation of the class, can be {@code null}
+     * @return The index of the field, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    private int indexOfIdentifier(final com.zero_x_baadf00d.partialize.annotation.Partialize annotation) {
+        return annotation == null || annotation.identifierField().isEmpty()
+            ? -1
+            : this.fieldIndex.indexOf(annotation.identifierField());
+    }
+
+    /**
+     * Resolve the getter of the allowed field at the given index.
+     *
+     * @param idx           The index of the field
+     * @param publicGetters Public methods without parameter, indexed by name
+     * @since 26.10.17
+     */
+    private void resolveGetter(final int idx, final Map<String, Method> publicGetters) {
+        final String field = this.allowedFields.get(idx);
+        final String capitalizedField = WordUtils.capitalize(field);
+        Method method = null;
+        for (final String methodPrefix : ClassDescriptor.METHOD_PREFIXES) {
+            method = publicGetters.get(methodPrefix + capitalizedField);
+            if (method != null) {
+                break;
+            }
+        }
+        if (method == null) {
+            method = publicGetters.get(field);
+        }
+
+        if (method == null) {
+            this.failures[idx] = new NoSuchMethodException(
+                this.clazz.getName() + ".get" + capitalizedField + "()"
+            );
+        } else {
+            try {
+                this.getters[idx] = Accessor.of(method);
+            } catch (final IllegalAccessException ex) {
+                this.failures[idx] = ex;
+            }
+        }
+    }
+
+    /**
+     * Is the described class annotated with {@code @Partialize}.
+     *
+     * @return {@code true} if the class is annotated
+     * @since 26.10.17
+     */
+    boolean isAnnotated() {
+        return this.annotated;
+    }
+
+    /**
+     * Get the allowed field names.
+     *
+     * @return An unmodifiable list of field names
+     * @since 26.10.17
+     */
+    List<String> getAllowedFields() {
+        return this.allowedFields;
+    }
+
+    /**
+     * Get the declared default field names.
+     *
+     * @return An unmodifiable list of field names, empty if none are declared
+     * @since 26.10.17
+     */
+    List<String> getDefaultFields() {
+        return this.defaultFields;
+    }
+
+    /**
+     * Get the fields rendered when no field has been requested.
+     *
+     * @return The mask of fields, must not be modified
+     * @since 26.10.17
+     */
+    FieldMask getDefaultMask() {
+        return this.defaultMask;
+    }
+
+    /**
+     * Get the index of the allowed field matching the given name. The
+     * comparison is case-insensitive.
+     *
+     * @param field The field name
+     * @return The index of the field, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    int indexOf(final String field) {
+        return this.fieldIndex.indexOf(field);
+    }
+
+    /**
+     * Get the index of the allowed field identifying instances in
+     * normalized documents.
+     *
+     * @return The index of the field, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    int getIdentifierIndex() {
+        return this.identifierIndex;
+    }
+
+    /**
+     * Get the getter of the allowed field at the given index.
+     *
+     * @param idx The index of the field
+     * @return The getter, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    Accessor getGetter(final int idx) {
+        return this.getters[idx];
+    }
+
+    /**
+     * Get the reason why the getter of the allowed field at the
+     * given index can't be used.
+     *
+     * @param idx The index of the field
+     * @return The reason, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    Exception getFailure(final int idx) {
+        return this.failures[idx];
+    }
+
+    /**
+     * Holder of the accessors generated at compile time.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class GeneratedAccessorsHolder {
+
+        /**
+         * Generated accessors, indexed by managed class.
+         *
+         * @since 26.10.17
+         */
+        private static final Map<Class<?>, GeneratedAccessors<?>> ACCESSORS = GeneratedAccessorsHolder.load();
+
+        /**
+         * Discover generated accessors with {@code ServiceLoader}.
+         *
+         * @return Generated accessors, indexed by managed class
+         * @since 26.10.17
+         */
+        @SuppressWarnings("rawtypes")
+        private static Map<Class<?>, GeneratedAccessors<?>> load() {
+            final Map<Class<?>, GeneratedAccessors<?>> accessors = new HashMap<>();
+            final Iterator<GeneratedAccessors> iterator = ServiceLoader.load(GeneratedAccessors.class).iterator();
+            while (true) {
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    final GeneratedAccessors<?> generatedAccessors = iterator.next();
+                    accessors.putIfAbsent(generatedAccessors.getManagedObjectClass(), generatedAccessors);
+                } catch (final ServiceConfigurationError ignore) {
+                    // Broken provider, reflection will be used instead
+                }
+            }
+            return accessors;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+/**
+ * Delimited text formats used to export flat projections.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public enum DelimitedFormat {
+
+    /**
+     * Comma-separated values, as defined by RFC 4180. Cells containing
+     * a comma, a double quote or a line break are quoted.
+     *
+     * @since 26.10.17
+     */
+    CSV(',', "\r\n"),
+
+    /**
+     * Tab-separated values. Tabs, line breaks and backslashes contained
+     * in cells are written as {@code \t}, {@code \n}, {@code \r} and
+     * {@code \\}.
+     *
+     * @since 26.10.17
+     */
+    TSV('\t', "\n");
+
+    /**
+     * The cell delimiter.
+     *
+     * @since 26.10.17
+     */
+    private final char delimiter;
+
+    /**
+     * The line separator.
+     *
+     * @since 26.10.17
+     */
+    private final String lineSeparator;
+
+    /**
+     * Build a new instance.
+     *
+     * @param delimiter     The cell delimiter
+     * @param lineSeparator The line separator
+     * @since 26.10.17
+     */
+    DelimitedFormat(final char delimiter, final String lineSeparator) {
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Get the cell delimiter.
+     *
+     * @return The cell delimiter
+     * @since 26.10.17
+     */
+    public char getDelimiter() {
+        return this.delimiter;
+    }
+
+    /**
+     * Get the line separator.
+     *
+     * @return The line separator
+     * @since 26.10.17
+     */
+    public String getLineSeparator() {
+        return this.lineSeparator;
+    }
+
+    /**
+     * Append the given cell value, escaped, to the given line.
+     *
+     * @param line  The line being built
+     * @param value The cell value
+     * @since 26.10.17
+     */
+    void appendCell(final StringBuilder line, final String value) {
+        if (this == DelimitedFormat.CSV) {
+            boolean quoted = false;
+            for (int idx = 0; idx < value.length() && !quoted; ++idx) {
+                final char c = value.charAt(idx);
+                quoted = c == this.delimiter || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoted) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int idx = 0; idx < value.length(); ++idx) {
+                final char c = value.charAt(idx);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        } else {
+            for (int idx = 0; idx < value.length(); ++idx) {
+                final char c = value.charAt(idx);
+                switch (c) {
+                    case '\t':
+                        line.append("\\t");
+                        break;
+                    case '\n':
+                        line.append("\\n");
+                        break;
+                    case '\r':
+                        line.append("\\r");
+                        break;
+                    case '\\':
+                        line.append("\\\\");
+                        break;
+                    default:
+                        line.append(c);
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.internal.ValueStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Base64;
+
+/**
+ * Rendering destination writing the columns and rows of a columnar
+ * rendering as delimited text. Each line is built in memory, then
+ * written at once. Objects and arrays found in cells are written as
+ * JSON text.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class DelimitedPartialOutput extends PartialOutput {
+
+    /**
+     * Depth of the values written as cells. The root object holds
+     * the columns and rows arrays, which hold cells and row arrays.
+     *
+     * @since 26.10.17
+     */
+    private static final int ROW_DEPTH = 3;
+
+    /**
+     * The writer to write to.
+     *
+     * @since 26.10.17
+     */
+    private final Writer writer;
+
+    /**
+     * The delimited format to use.
+     *
+     * @since 26.10.17
+     */
+    private final DelimitedFormat format;
+
+    /**
+     * Node factory used to build objects and arrays found in cells.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNodeFactory nodeFactory;
+
+    /**
+     * The line being built.
+     *
+     * @since 26.10.17
+     */
+    private final StringBuilder line;
+
+    /**
+     * Number of open containers, including the ones found in cells.
+     *
+     * @since 26.10.17
+     */
+    private int depth;
+
+    /**
+     * Number of cells already added to the line being built.
+     *
+     * @since 26.10.17
+     */
+    private int cellCount;
+
+    /**
+     * Has the header line, holding column names, been written.
+     *
+     * @since 26.10.17
+     */
+    private boolean headerWritten;
+
+    /**
+     * Tree of the object or array found in the current cell, {@code null}
+     * if the current cell is a scalar.
+     *
+     * @since 26.10.17
+     */
+    private TreePartialOutput cellTree;
+
+    /**
+     * Build a new instance.
+     *
+     * @param writer      The writer to write to
+     * @param format      The delimited format to use
+     * @param nodeFactory Node factory used to build objects and arrays found in cells
+     * @since 26.10.17
+     */
+    DelimitedPartialOutput(final Writer writer, final DelimitedFormat format, final JsonNodeFactory nodeFactory) {
+        this.writer = writer;
+        this.format = format;
+        this.nodeFactory = nodeFactory;
+        this.line = new StringBuilder(128);
+    }
+
+    @Override
+    boolean inArray() {
+        return this.cellTree != null ? this.cellTree.inArray() : this.depth > 1;
+    }
+
+    @Override
+    void startObject(final String name) {
+        if (this.isInCell()) {
+            this.openCellTree().startObject(name);
+        }
+        ++this.depth;
+    }
+
+    @Override
+    void endObject() {
+        --this.depth;
+        if (this.cellTree != null) {
+            this.cellTree.endObject();
+            this.closeCellTree();
+        }
+    }
+
+    @Override
+    void startArray(final String name) {
+        if (this.isInCell()) {
+            this.openCellTree().startArray(name);
+        }
+        ++this.depth;
+    }
+
+    @Override
+    void endArray() {
+        --this.depth;
+        if (this.cellTree != null) {
+            this.cellTree.endArray();
+            this.closeCellTree();
+        } else if (this.depth == DelimitedPartialOutput.ROW_DEPTH - 1 || (this.depth == 1 && !this.headerWritten)) {
+            this.headerWritten = true;
+            this.endLine();
+        }
+    }
+
+    @Override
+    void writeNull(final String name) {
+        if (this.cellTree != null) {
+            this.cellTree.writeNull(name);
+        } else if (this.depth == DelimitedPartialOutput.ROW_DEPTH) {
+            this.addCell("");
+        }
+    }
+
+    @Override
+    void writeValue(final String name, final ValueWriter valueWriter, final Object value) {
+        if (this.cellTree != null) {
+            this.cellTree.writeValue(name, valueWriter, value);
+            return;
+        }
+        switch (valueWriter.getKind()) {
+            case BIG_DECIMAL:
+                this.addCell(this.nodeFactory.numberNode((BigDecimal) value).asText());
+                break;
+            case ENUM:
+                final SerializedString enumString = valueWriter.getEnumString((Enum<?>) value);
+                this.addCell(enumString != null ? enumString.getValue() : valueWriter.getEnumNode((Enum<?>) value).asText());
+                break;
+            case BINARY:
+                this.addCell(Base64.getEncoder().encodeToString((byte[]) value));
+                break;
+            case BINARY_STREAM:
+                this.addCell(Base64.getEncoder().encodeToString(ValueStreams.readBytes((InputStream) value)));
+                break;
+            case TEXT_STREAM:
+                this.addCell(ValueStreams.readText((Reader) value));
+                break;
+            case JSON_NODE:
+                this.addCell(DelimitedPartialOutput.toText((JsonNode) value));
+                break;
+            default:
+                this.addCell(value.toString());
+                break;
+        }
+    }
+
+    @Override
+    void writeConverted(final String name, final Converter<Object> converter, final Object value) {
+        if (this.cellTree != null) {
+            this.cellTree.writeConverted(name, converter, value);
+            return;
+        }
+        final ArrayNode arrayNode = this.nodeFactory.arrayNode();
+        converter.convert(name, value, arrayNode);
+        if (arrayNode.size() == 0) {
+            this.addCell("");
+        } else if (arrayNode.size() == 1) {
+            this.addCell(DelimitedPartialOutput.toText(arrayNode.get(0)));
+        } else {
+            this.addCell(arrayNode.toString());
+        }
+    }
+
+    /**
+     * Get the text of the given node: the value of scalar nodes,
+     * otherwise, the JSON text of the node.
+     *
+     * @param node The node
+     * @return The text of the node
+     * @since 26.10.17
+     */
+    private static String toText(final JsonNode node) {
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+
+    /**
+     * Check if the next container is a cell value.
+     *
+     * @return {@code true} if the next container is a cell value
+     * @since 26.10.17
+     */
+    private boolean isInCell() {
+        return this.cellTree != null || this.depth >= DelimitedPartialOutput.ROW_DEPTH;
+    }
+
+    /**
+     * Get the tree of the object or array found in the current
+     * cell, create it if needed.
+     *
+     * @return The tree of the current cell
+     * @since 26.10.17
+     */
+    private TreePartialOutput openCellTree() {
+        if (this.cellTree == null) {
+            this.cellTree = new TreePartialOutput(this.nodeFactory);
+        }
+        return this.cellTree;
+    }
+
+    /**
+     * Add the tree of the current cell to the line once it is complete.
+     *
+     * @since 26.10.17
+     */
+    private void closeCellTree() {
+        if (this.depth == DelimitedPartialOutput.ROW_DEPTH) {
+            final String text = this.cellTree.getRoot().toString();
+            this.cellTree = null;
+            this.addCell(text);
+        }
+    }
+
+    /**
+     * Add a cell to the line being built.
+     *
+     * @param value The cell value
+     * @since 26.10.17
+     */
+    private void addCell(final String value) {
+        if (this.cellCount++ > 0) {
+            this.line.append(this.format.getDelimiter());
+        }
+        this.format.appendCell(this.line, value);
+    }
+
+    /**
+     * Write the line being built.
+     *
+     * @since 26.10.17
+     */
+    private void endLine() {
+        this.line.append(this.format.getLineSeparator());
+        try {
+            this.writer.append(this.line);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.line.setLength(0);
+        this.cellCount = 0;
+    }
+}
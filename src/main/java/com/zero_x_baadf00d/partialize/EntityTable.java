@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Entities of a normalized document. Each distinct instance, identified
+ * by its identifier field or by reference, is given a key the first time
+ * it is met, and queued to be rendered once in the entity table. An
+ * instance rendered with several render plans is given one key per plan.
+ * Keys are unique within the table: a key already given to another
+ * entity, for example to a class with the same simple name, gets a
+ * numbered suffix.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class EntityTable {
+
+    /**
+     * Keys of the instances identified by reference.
+     *
+     * @since 26.10.17
+     */
+    private final Map<Object, Map<RenderPlan, String>> keysByInstance;
+
+    /**
+     * Keys of the instances identified by their identifier field,
+     * indexed by class and identifier value.
+     *
+     * @since 26.10.17
+     */
+    private final Map<List<Object>, Map<RenderPlan, String>> keysByIdentifier;
+
+    /**
+     * Entities waiting to be rendered.
+     *
+     * @since 26.10.17
+     */
+    private final Queue<Entity> pendingEntities;
+
+    /**
+     * Keys already given to an entity.
+     *
+     * @since 26.10.17
+     */
+    private final Set<String> usedKeys;
+
+    /**
+     * Depth level of the root objects, which are not entities.
+     *
+     * @since 26.10.17
+     */
+    private final int rootDepth;
+
+    /**
+     * Number of instances identified by reference.
+     *
+     * @since 26.10.17
+     */
+    private int sequence;
+
+    /**
+     * Build a new instance.
+     *
+     * @param rootDepth Depth level of the root objects, which are not entities
+     * @since 26.10.17
+     */
+    EntityTable(final int rootDepth) {
+        this.rootDepth = rootDepth;
+        this.keysByInstance = new IdentityHashMap<>();
+        this.keysByIdentifier = new HashMap<>();
+        this.pendingEntities = new ArrayDeque<>();
+        this.usedKeys = new HashSet<>();
+    }
+
+    /**
+     * Check if an object met at the given depth level is an entity.
+     *
+     * @param depth The depth level
+     * @return {@code true} if the object must be referenced
+     * @since 26.10.17
+     */
+    boolean isEntity(final int depth) {
+        return depth > this.rootDepth;
+    }
+
+    /**
+     * Get the key of the given instance rendered with the given plan.
+     * The instance is queued to be rendered if it is met for the first
+     * time with this plan.
+     *
+     * @param renderPlan The render plan of the instance
+     * @param instance   The instance
+     * @param identifier The value of the identifier field, {@code null} to identify the instance by reference
+     * @param depth      The depth level where the instance is met
+     * @return The key of the entity
+     * @since 26.10.17
+     */
+    String reference(final RenderPlan renderPlan, final Object instance, final Object identifier, final int depth) {
+        final Class<?> clazz = renderPlan.getRenderedClass();
+        final Map<RenderPlan, String> keys;
+        final String baseKey;
+        if (identifier == null) {
+            keys = this.keysByInstance.computeIfAbsent(instance, k -> new HashMap<>());
+            baseKey = keys.isEmpty() ? clazz.getSimpleName() + ":#" + ++this.sequence : null;
+        } else {
+            keys = this.keysByIdentifier.computeIfAbsent(Arrays.asList(clazz, identifier), k -> new HashMap<>());
+            baseKey = clazz.getSimpleName() + ":" + identifier;
+        }
+
+        String key = keys.get(renderPlan);
+        if (key == null) {
+            if (keys.isEmpty()) {
+                key = baseKey;
+            } else {
+                final String firstKey = keys.values().iterator().next();
+                key = firstKey + "/" + keys.size();
+            }
+            key = this.reserve(key);
+            keys.put(renderPlan, key);
+            this.pendingEntities.add(new Entity(key, renderPlan, instance, depth));
+        }
+        return key;
+    }
+
+    /**
+     * Get the next entity to render.
+     *
+     * @return The next entity, otherwise, {@code null}
+     * @since 26.10.17
+     */
+    Entity poll() {
+        return this.pendingEntities.poll();
+    }
+
+    /**
+     * Reserve the given key, or the first free key made of the given key
+     * followed by a numbered suffix.
+     *
+     * @param key The wanted key
+     * @return The reserved key
+     * @since 26.10.17
+     */
+    private String reserve(final String key) {
+        String candidate = key;
+        int suffix = 1;
+        while (!this.usedKeys.add(candidate)) {
+            suffix += 1;
+            candidate = key + "~" + suffix;
+        }
+        return candidate;
+    }
+
+    /**
+     * Entity waiting to be rendered.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    static final class Entity {
+
+        /**
+         * The key of the entity.
+         *
+         * @since 26.10.17
+         */
+        final String key;
+
+        /**
+         * The render plan of the entity.
+         *
+         * @since 26.10.17
+         */
+        final RenderPlan renderPlan;
+
+        /**
+         * The instance to render.
+         *
+         * @since 26.10.17
+         */
+        final Object instance;
+
+        /**
+         * The depth level where the entity has been met first.
+         *
+         * @since 26.10.17
+         */
+        final int depth;
+
+        /**
+         * Build a new instance.
+         *
+         * @param key        The key of the entity
+         * @param renderPlan The render plan of the entity
+         * @param instance   The instance to render
+         * @param depth      The depth level where the entity has been met first
+         * @since 26.10.17
+         */
+        Entity(final String key, final RenderPlan renderPlan, final Object instance, final int depth) {
+            this.key = key;
+            this.renderPlan = renderPlan;
+            this.instance = instance;
+            this.depth = depth;
+        }
+    }
+}
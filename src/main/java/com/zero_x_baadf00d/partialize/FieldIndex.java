@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Case-insensitive index of field names. Names are stored in an open
+ * addressing table keyed by a case-folded hash, so resolving a field
+ * is a single lookup that does not allocate.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class FieldIndex {
+
+    /**
+     * The indexed field names, in declaration order.
+     *
+     * @since 26.10.17
+     */
+    private final List<String> names;
+
+    /**
+     * Open addressing table holding, for each slot, the index of the
+     * field name plus one, or zero if the slot is free.
+     *
+     * @since 26.10.17
+     */
+    private final int[] slots;
+
+    /**
+     * Mask used to map a hash to a slot.
+     *
+     * @since 26.10.17
+     */
+    private final int mask;
+
+    /**
+     * Build a new instance. Names are read in a single pass, so map keys
+     * can be indexed straight from {@link java.util.Map#keySet()}.
+     *
+     * @param names The field names, in declaration order, non-string names are converted with {@link String#valueOf(Object)}
+     * @since 26.10.17
+     */
+    FieldIndex(final Collection<?> names) {
+        final List<String> nameList = new ArrayList<>(names.size());
+        for (final Object name : names) {
+            nameList.add(String.valueOf(name));
+        }
+        this.names = Collections.unmodifiableList(nameList);
+
+        int capacity = 4;
+        while (capacity < this.names.size() * 2) {
+            capacity <<= 1;
+        }
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int idx = 0; idx < this.names.size(); ++idx) {
+            final String name = this.names.get(idx);
+            int slot = FieldIndex.hash(name) & this.mask;
+            while (this.slots[slot] != 0) {
+                if (this.names.get(this.slots[slot] - 1).equalsIgnoreCase(name)) {
+                    break;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            if (this.slots[slot] == 0) {
+                this.slots[slot] = idx + 1;
+            }
+        }
+    }
+
+    /**
+     * Compute the case-folded hash of the given name. Two names equal
+     * ignoring case, as defined by {@link String#equalsIgnoreCase(String)},
+     * have the same hash.
+     *
+     * @param name The name
+     * @return The hash
+     * @since 26.10.17
+     */
+    private static int hash(final String name) {
+        int h = 0;
+        for (int idx = 0; idx < name.length(); ++idx) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(idx)));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Get the indexed field names.
+     *
+     * @return An unmodifiable list of field names, in declaration order
+     * @since 26.10.17
+     */
+    List<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Get the index of the field matching the given name. The comparison
+     * is case-insensitive, if many fields match, the first declared wins.
+     *
+     * @param name The field name
+     * @return The index of the field, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    int indexOf(final String name) {
+        if (name == null) {
+            return -1;
+        }
+        int slot = FieldIndex.hash(name) & this.mask;
+        int entry = this.slots[slot];
+        while (entry != 0) {
+            if (this.names.get(entry - 1).equalsIgnoreCase(name)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & this.mask;
+            entry = this.slots[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Check if a field matches the given name, ignoring case.
+     *
+     * @param name The field name
+     * @return {@code true} if the field exists
+     * @since 26.10.17
+     */
+    boolean contains(final String name) {
+        return this.indexOf(name) >= 0;
+    }
+}
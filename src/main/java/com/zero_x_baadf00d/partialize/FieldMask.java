@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+/**
+ * Set of fields, identified by their index in a {@link FieldIndex},
+ * stored as a bitset.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class FieldMask {
+
+    /**
+     * The bitset words.
+     *
+     * @since 26.10.17
+     */
+    private final long[] words;
+
+    /**
+     * Build an empty mask.
+     *
+     * @param size The number of fields
+     * @since 26.10.17
+     */
+    FieldMask(final int size) {
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Build a mask containing all fields.
+     *
+     * @param size The number of fields
+     * @return The mask
+     * @since 26.10.17
+     */
+    static FieldMask all(final int size) {
+        final FieldMask fieldMask = new FieldMask(size);
+        for (int idx = 0; idx < fieldMask.words.length; ++idx) {
+            fieldMask.words[idx] = -1L;
+        }
+        if ((size & 63) != 0) {
+            fieldMask.words[fieldMask.words.length - 1] = (1L << size) - 1;
+        }
+        return fieldMask;
+    }
+
+    /**
+     * Add the given field.
+     *
+     * @param idx The index of the field
+     * @since 26.10.17
+     */
+    void set(final int idx) {
+        this.words[idx >>> 6] |= 1L << idx;
+    }
+
+    /**
+     * Check if the given field is part of this mask.
+     *
+     * @param idx The index of the field
+     * @return {@code true} if the field is part of this mask
+     * @since 26.10.17
+     */
+    boolean get(final int idx) {
+        return (this.words[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * Build a new mask containing fields of this mask that are not
+     * part of the given one.
+     *
+     * @param other The fields to remove
+     * @return The new mask
+     * @since 26.10.17
+     */
+    FieldMask andNot(final FieldMask other) {
+        final FieldMask fieldMask = new FieldMask(this.words.length << 6);
+        for (int idx = 0; idx < this.words.length; ++idx) {
+            fieldMask.words[idx] = this.words[idx] & ~other.words[idx];
+        }
+        return fieldMask;
+    }
+
+    /**
+     * Get the index of the first field of this mask starting from
+     * the given index.
+     *
+     * @param fromIdx The index to start from, inclusive
+     * @return The index of the field, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    int nextSetBit(final int fromIdx) {
+        int wordIdx = fromIdx >>> 6;
+        if (wordIdx >= this.words.length) {
+            return -1;
+        }
+        long word = this.words[wordIdx] & (-1L << fromIdx);
+        while (word == 0) {
+            wordIdx += 1;
+            if (wordIdx >= this.words.length) {
+                return -1;
+            }
+            word = this.words[wordIdx];
+        }
+        return (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, pre-parsed representation of a field query. A query
+ * is parsed once and can be reused to render any number of objects.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class FieldQuery {
+
+    /**
+     * The empty query. Rendering with it uses the default fields.
+     *
+     * @since 26.10.17
+     */
+    public static final FieldQuery EMPTY = new FieldQuery(Collections.emptyList());
+
+    /**
+     * Name of the wildcard field.
+     *
+     * @since 26.10.17
+     */
+    public static final String WILDCARD = "*";
+
+    /**
+     * Maximum number of compiled queries kept in cache.
+     *
+     * @since 26.10.17
+     */
+    private static final int CACHE_MAXIMUM_SIZE = 512;
+
+    /**
+     * Compiled queries, indexed by raw query string. Lookups don't lock,
+     * the cache is cleared when it is full.
+     *
+     * @since 26.10.17
+     */
+    private static final Map<String, FieldQuery> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Requested fields, in query order.
+     *
+     * @since 26.10.17
+     */
+    private final List<Field> fields;
+
+    /**
+     * Pre-computed hash code.
+     *
+     * @since 26.10.17
+     */
+    private final int hashCode;
+
+    /**
+     * Build a new instance.
+     *
+     * @param fields The requested fields
+     * @since 26.10.17
+     */
+    FieldQuery(final List<Field> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+        this.hashCode = this.fields.hashCode();
+    }
+
+    /**
+     * Compile the given field query. Compiled queries are cached, so
+     * compiling again the same string usually returns the same instance.
+     *
+     * @param fields The field query to compile, can be {@code null}
+     * @return The compiled query
+     * @throws FieldQueryException If the field query is malformed
+     * @since 26.10.17
+     */
+    public static FieldQuery compile(final String fields) {
+        if (fields == null || fields.isEmpty()) {
+            return FieldQuery.EMPTY;
+        }
+
+        FieldQuery fieldQuery = FieldQuery.CACHE.get(fields);
+        if (fieldQuery == null) {
+            fieldQuery = new FieldQueryParser(fields).parse();
+            if (FieldQuery.CACHE.size() >= FieldQuery.CACHE_MAXIMUM_SIZE) {
+                FieldQuery.CACHE.clear();
+            }
+            final FieldQuery cachedFieldQuery = FieldQuery.CACHE.putIfAbsent(fields, fieldQuery);
+            if (cachedFieldQuery != null) {
+                fieldQuery = cachedFieldQuery;
+            }
+        }
+        return fieldQuery;
+    }
+
+    /**
+     * Get the requested fields, in query order.
+     *
+     * @return An unmodifiable list of fields
+     * @since 26.10.17
+     */
+    public List<Field> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Check if this query is empty.
+     *
+     * @return {@code true} if no field has been requested
+     * @since 26.10.17
+     */
+    public boolean isEmpty() {
+        return this.fields.isEmpty();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        final FieldQuery that = (FieldQuery) o;
+        return this.hashCode == that.hashCode && this.fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Field field : this.fields) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(field);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A single requested field.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static final class Field {
+
+        /**
+         * The field name, or alias.
+         *
+         * @since 26.10.17
+         */
+        private final String name;
+
+        /**
+         * The sub-query to apply on the field value.
+         *
+         * @since 26.10.17
+         */
+        private final FieldQuery args;
+
+        /**
+         * Is this field excluded from the rendering.
+         *
+         * @since 26.10.17
+         */
+        private final boolean excluded;
+
+        /**
+         * Build a new instance.
+         *
+         * @param name The field name
+         * @param args The sub-query, can be {@code null}
+         * @since 26.10.17
+         */
+        Field(final String name, final FieldQuery args) {
+            this(name, args, false);
+        }
+
+        /**
+         * Build a new instance.
+         *
+         * @param name     The field name
+         * @param args     The sub-query, can be {@code null}
+         * @param excluded Is this field excluded from the rendering
+         * @since 26.10.17
+         */
+        Field(final String name, final FieldQuery args, final boolean excluded) {
+            this.name = name;
+            this.args = args;
+            this.excluded = excluded;
+        }
+
+        /**
+         * Get the field name, or alias.
+         *
+         * @return The field name
+         * @since 26.10.17
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Get the sub-query to apply on the field value.
+         *
+         * @return The sub-query, otherwise, {@code null}
+         * @since 26.10.17
+         */
+        public FieldQuery getArgs() {
+            return this.args;
+        }
+
+        /**
+         * Check if this field is the wildcard.
+         *
+         * @return {@code true} if this field is the wildcard
+         * @since 26.10.17
+         */
+        public boolean isWildcard() {
+            return !this.excluded && FieldQuery.WILDCARD.equals(this.name);
+        }
+
+        /**
+         * Check if this field is excluded from the rendering, as
+         * requested with the {@code -field} syntax.
+         *
+         * @return {@code true} if this field is excluded
+         * @since 26.10.17
+         */
+        public boolean isExcluded() {
+            return this.excluded;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            final Field that = (Field) o;
+            return this.excluded == that.excluded && this.name.equals(that.name) && Objects.equals(this.args, that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.name.hashCode() + Objects.hashCode(this.args)) + (this.excluded ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            if (this.excluded) {
+                return "-" + this.name;
+            }
+            return this.args == null ? this.name : this.name + "(" + this.args + ")";
+        }
+    }
+}
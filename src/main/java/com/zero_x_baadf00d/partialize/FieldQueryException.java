@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+/**
+ * Thrown when a field query can't be parsed.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public class FieldQueryException extends IllegalArgumentException {
+
+    /**
+     * Serial version UID.
+     *
+     * @since 26.10.17
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Position, in the raw query, where the error has been detected.
+     *
+     * @since 26.10.17
+     */
+    private final int position;
+
+    /**
+     * Build a new instance.
+     *
+     * @param message  The error message
+     * @param position The position where the error has been detected
+     * @since 26.10.17
+     */
+    public FieldQueryException(final String message, final int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * Get the position, in the raw query, where the error has been detected.
+     *
+     * @return The zero-based position
+     * @since 26.10.17
+     */
+    public int getPosition() {
+        return this.position;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass field query parser. Each character of the raw query
+ * is visited exactly once, the query length and the nesting level
+ * are bounded to protect against hostile inputs. A field prefixed
+ * with {@code -} is excluded from the rendering.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class FieldQueryParser {
+
+    /**
+     * Maximum accepted query length, in characters.
+     *
+     * @since 26.10.17
+     */
+    static final int MAXIMUM_LENGTH = 8192;
+
+    /**
+     * Maximum accepted nesting level.
+     *
+     * @since 26.10.17
+     */
+    static final int MAXIMUM_NESTING = 32;
+
+    /**
+     * The raw query.
+     *
+     * @since 26.10.17
+     */
+    private final String query;
+
+    /**
+     * The raw query length.
+     *
+     * @since 26.10.17
+     */
+    private final int length;
+
+    /**
+     * Current position on the raw query.
+     *
+     * @since 26.10.17
+     */
+    private int position;
+
+    /**
+     * Build a new instance.
+     *
+     * @param query The raw query to parse
+     * @since 26.10.17
+     */
+    FieldQueryParser(final String query) {
+        this.query = query;
+        this.length = query.length();
+        this.position = 0;
+    }
+
+    /**
+     * Parse the raw query.
+     *
+     * @return The parsed query
+     * @throws FieldQueryException If the raw query is malformed
+     * @since 26.10.17
+     */
+    FieldQuery parse() {
+        if (this.length > FieldQueryParser.MAXIMUM_LENGTH) {
+            throw new FieldQueryException(
+                "Query exceeds " + FieldQueryParser.MAXIMUM_LENGTH + " characters",
+                FieldQueryParser.MAXIMUM_LENGTH
+            );
+        }
+
+        final FieldQuery fieldQuery = this.parseQuery(0);
+        if (this.position < this.length) {
+            throw new FieldQueryException("Unexpected ')'", this.position);
+        }
+        return fieldQuery;
+    }
+
+    /**
+     * Parse a comma separated list of fields. Parsing stops at the
+     * end of the raw query or on the first unmatched ')'.
+     *
+     * @param nesting The current nesting level
+     * @return The parsed query
+     * @since 26.10.17
+     */
+    private FieldQuery parseQuery(final int nesting) {
+        if (nesting > FieldQueryParser.MAXIMUM_NESTING) {
+            throw new FieldQueryException(
+                "Query nesting exceeds " + FieldQueryParser.MAXIMUM_NESTING + " levels",
+                this.position
+            );
+        }
+
+        final List<FieldQuery.Field> fields = new ArrayList<>();
+        while (true) {
+            final FieldQuery.Field field = this.parseField(nesting);
+            if (field != null) {
+                fields.add(field);
+            }
+            if (this.position < this.length && this.query.charAt(this.position) == ',') {
+                this.position += 1;
+            } else {
+                break;
+            }
+        }
+        return fields.isEmpty() ? FieldQuery.EMPTY : new FieldQuery(fields);
+    }
+
+    /**
+     * Parse a single field and its optional sub-query.
+     *
+     * @param nesting The current nesting level
+     * @return The parsed field, or {@code null} if the field is empty
+     * @since 26.10.17
+     */
+    private FieldQuery.Field parseField(final int nesting) {
+        this.skipWhitespaces();
+        final int exclusion = this.position;
+        final boolean excluded = this.position < this.length && this.query.charAt(this.position) == '-';
+        if (excluded) {
+            this.position += 1;
+            this.skipWhitespaces();
+        }
+        final int start = this.position;
+        int end = start;
+        while (this.position < this.length) {
+            final char c = this.query.charAt(this.position);
+            if (c == ',' || c == '(' || c == ')') {
+                break;
+            } else if (!Character.isWhitespace(c)) {
+                end = this.position + 1;
+            }
+            this.position += 1;
+        }
+
+        if (excluded) {
+            if (start == end) {
+                throw new FieldQueryException("Missing field name after '-'", exclusion);
+            } else if (this.position < this.length && this.query.charAt(this.position) == '(') {
+                throw new FieldQueryException("Unexpected sub-query on excluded field", this.position);
+            } else if (end - start == 1 && this.query.charAt(start) == '*') {
+                throw new FieldQueryException("Wildcard can't be excluded", exclusion);
+            }
+            return new FieldQuery.Field(this.query.substring(start, end), null, true);
+        }
+
+        FieldQuery args = null;
+        if (this.position < this.length && this.query.charAt(this.position) == '(') {
+            final int opening = this.position;
+            if (start == end) {
+                throw new FieldQueryException("Missing field name before '('", opening);
+            }
+            this.position += 1;
+            args = this.parseQuery(nesting + 1);
+            if (this.position >= this.length) {
+                throw new FieldQueryException("Missing ')' to close '('", opening);
+            } else if (args.isEmpty()) {
+                throw new FieldQueryException("Empty sub-query", opening);
+            }
+            this.position += 1;
+            this.skipWhitespaces();
+            if (this.position < this.length) {
+                final char c = this.query.charAt(this.position);
+                if (c != ',' && c != ')') {
+                    throw new FieldQueryException("Unexpected character '" + c + "'", this.position);
+                }
+            }
+        }
+        return start == end ? null : new FieldQuery.Field(this.query.substring(start, end), args);
+    }
+
+    /**
+     * Move the current position after any whitespace.
+     *
+     * @since 26.10.17
+     */
+    private void skipWhitespaces() {
+        while (this.position < this.length && Character.isWhitespace(this.query.charAt(this.position))) {
+            this.position += 1;
+        }
+    }
+}
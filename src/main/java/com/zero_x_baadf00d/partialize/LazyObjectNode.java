@@ -0,0 +1,282 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only object node rendering the fields of an annotated object on
+ * demand. The fields of the node are held by a map which renders a
+ * field the first time it is read, other fields being left untouched.
+ * Reading the whole map, for example to iterate, compare, hash or
+ * serialize the node, renders all remaining fields in plan order, after
+ * which the source object is no longer referenced. As every access to
+ * the fields, including from other nodes comparing themselves with this
+ * one, goes through that map, the node behaves like a fully rendered
+ * object node. Instances are not thread-safe.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@SuppressWarnings("unchecked") // Inherited ObjectNode.deepCopy() narrows the generic JsonNode.deepCopy()
+final class LazyObjectNode extends ObjectNode {
+
+    /**
+     * Serial version UID. Nodes are serialized as their rendered JSON.
+     *
+     * @since 26.10.17
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Build a new instance.
+     *
+     * @param nodeFactory Factory used to create nodes
+     * @param partialize  The rendering engine
+     * @param renderPlan  The render plan of the object
+     * @param instance    The object to render
+     * @param depth       The depth of the object
+     * @since 26.10.17
+     */
+    LazyObjectNode(final JsonNodeFactory nodeFactory, final Partialize partialize, final RenderPlan renderPlan,
+                   final Object instance, final int depth) {
+        super(nodeFactory, new LazyFields(nodeFactory, partialize, renderPlan, instance, depth));
+    }
+
+    /**
+     * Build the exception thrown by mutators.
+     *
+     * @return The exception
+     * @since 26.10.17
+     */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A lazy view can't be modified");
+    }
+
+    /**
+     * Read-only fields of a lazy view, rendered on demand.
+     *
+     * @since 26.10.17
+     */
+    private static final class LazyFields extends AbstractMap<String, JsonNode> {
+
+        /**
+         * Factory used to create nodes.
+         *
+         * @since 26.10.17
+         */
+        private final JsonNodeFactory nodeFactory;
+
+        /**
+         * The depth of the object.
+         *
+         * @since 26.10.17
+         */
+        private final int depth;
+
+        /**
+         * The rendered fields, in plan order once all fields are rendered.
+         *
+         * @since 26.10.17
+         */
+        private final Map<String, JsonNode> fields;
+
+        /**
+         * The rendering engine, {@code null} once all fields are rendered.
+         *
+         * @since 26.10.17
+         */
+        private Partialize partialize;
+
+        /**
+         * The render plan of the object.
+         *
+         * @since 26.10.17
+         */
+        private RenderPlan renderPlan;
+
+        /**
+         * The object to render.
+         *
+         * @since 26.10.17
+         */
+        private Object instance;
+
+        /**
+         * Rendered fields of each step, {@code null} for steps not rendered yet.
+         *
+         * @since 26.10.17
+         */
+        private ObjectNode[] stepValues;
+
+        /**
+         * Build a new instance.
+         *
+         * @param nodeFactory Factory used to create nodes
+         * @param partialize  The rendering engine
+         * @param renderPlan  The render plan of the object
+         * @param instance    The object to render
+         * @param depth       The depth of the object
+         * @since 26.10.17
+         */
+        LazyFields(final JsonNodeFactory nodeFactory, final Partialize partialize, final RenderPlan renderPlan,
+                   final Object instance, final int depth) {
+            this.nodeFactory = nodeFactory;
+            this.partialize = partialize;
+            this.renderPlan = renderPlan;
+            this.instance = instance;
+            this.depth = depth;
+            this.fields = new LinkedHashMap<>();
+            this.stepValues = new ObjectNode[renderPlan.getSteps().length];
+        }
+
+        @Override
+        public JsonNode get(final Object key) {
+            return key instanceof String ? this.renderField((String) key) : this.fields.get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            this.renderAll();
+            return this.fields.size();
+        }
+
+        @Override
+        public Set<Entry<String, JsonNode>> entrySet() {
+            this.renderAll();
+            return Collections.unmodifiableMap(this.fields).entrySet();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            this.renderAll();
+            return Collections.unmodifiableSet(this.fields.keySet());
+        }
+
+        @Override
+        public Collection<JsonNode> values() {
+            this.renderAll();
+            return Collections.unmodifiableCollection(this.fields.values());
+        }
+
+        @Override
+        public JsonNode put(final String key, final JsonNode value) {
+            throw LazyObjectNode.readOnly();
+        }
+
+        @Override
+        public JsonNode remove(final Object key) {
+            throw LazyObjectNode.readOnly();
+        }
+
+        @Override
+        public void putAll(final Map<? extends String, ? extends JsonNode> m) {
+            throw LazyObjectNode.readOnly();
+        }
+
+        @Override
+        public void clear() {
+            throw LazyObjectNode.readOnly();
+        }
+
+        /**
+         * Render the step producing the given field, if not already done.
+         *
+         * @param propertyName The field name
+         * @return The rendered field value, otherwise, {@code null}
+         * @since 26.10.17
+         */
+        private JsonNode renderField(final String propertyName) {
+            if (this.stepValues == null) {
+                return this.fields.get(propertyName);
+            }
+            final int stepIdx = this.renderPlan.indexOf(propertyName);
+            if (stepIdx >= 0) {
+                return this.renderStep(stepIdx).get(propertyName);
+            }
+
+            // A converter may have written the field under another name
+            if (this.renderPlan.mayRenameFields()) {
+                this.renderAll();
+                return this.fields.get(propertyName);
+            }
+            return null;
+        }
+
+        /**
+         * Render all remaining fields, in plan order, and release the source object.
+         *
+         * @since 26.10.17
+         */
+        private void renderAll() {
+            if (this.stepValues == null) {
+                return;
+            }
+            for (int stepIdx = 0; stepIdx < this.stepValues.length; ++stepIdx) {
+                final Iterator<Map.Entry<String, JsonNode>> iterator = this.renderStep(stepIdx).fields();
+                while (iterator.hasNext()) {
+                    final Map.Entry<String, JsonNode> entry = iterator.next();
+                    this.fields.put(entry.getKey(), entry.getValue());
+                }
+            }
+            this.stepValues = null;
+            this.partialize = null;
+            this.renderPlan = null;
+            this.instance = null;
+        }
+
+        /**
+         * Render the given step, if not already done.
+         *
+         * @param stepIdx The index of the step
+         * @return The fields rendered by the step
+         * @since 26.10.17
+         */
+        private ObjectNode renderStep(final int stepIdx) {
+            ObjectNode values = this.stepValues[stepIdx];
+            if (values == null) {
+                values = this.nodeFactory.objectNode();
+                this.partialize.renderStep(this.depth, this.renderPlan, this.renderPlan.getSteps()[stepIdx], this.instance, values);
+                this.stepValues[stepIdx] = values;
+            }
+            return values;
+        }
+    }
+}
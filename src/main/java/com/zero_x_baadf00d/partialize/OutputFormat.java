@@ -24,34 +24,35 @@
 package com.zero_x_baadf00d.partialize;
 
 /**
- * Define the type of the object. It mainly used to avoid heavy
- * usage of {@code instanceof} during the partialize process.
+ * Encoding of partial documents written to streams and channels.
+ * Binary formats require the matching Jackson dataformat module on
+ * the classpath.
  *
  * @author Thibault Meyer
- * @version 16.12.05
- * @since 16.12.05
+ * @version 26.10.17
+ * @since 26.10.17
  */
-enum ObjectType {
+public enum OutputFormat {
 
     /**
-     * This is a fully compatible object annotated
-     * with {@code @Partialize(...)}.
+     * JSON text, UTF-8 encoded.
      *
-     * @since 16.12.05
+     * @since 26.10.17
      */
-    ANNOTATED,
+    JSON,
 
     /**
-     * A simple Map.
+     * Smile binary JSON, with shared names and shared string values
+     * back-references enabled. Requires {@code jackson-dataformat-smile}.
      *
-     * @since 16.12.05
+     * @since 26.10.17
      */
-    MAP,
+    SMILE,
 
     /**
-     * Partialize can't handle object.
+     * CBOR, as defined by RFC 8949. Requires {@code jackson-dataformat-cbor}.
      *
-     * @since 16.12.05
+     * @since 26.10.17
      */
-    NOT_SUPPORTED
+    CBOR
 }
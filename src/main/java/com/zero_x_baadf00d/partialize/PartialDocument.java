@@ -0,0 +1,667 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only partial document stored as a tape: each token is packed in
+ * a {@code long}, its type in the high byte and its payload in the
+ * remaining bits. Containers hold the position of their matching end,
+ * so sub-trees are skipped without being read. Integers, floats and
+ * booleans are stored in the token itself, longs and doubles in the
+ * next slot, strings and other values in side tables.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class PartialDocument {
+
+    /**
+     * Start of an object, the payload is the position of its end.
+     *
+     * @since 26.10.17
+     */
+    static final int START_OBJECT = 1;
+
+    /**
+     * End of an object, the payload is the position of its start.
+     *
+     * @since 26.10.17
+     */
+    static final int END_OBJECT = 2;
+
+    /**
+     * Start of an array, the payload is the position of its end.
+     *
+     * @since 26.10.17
+     */
+    static final int START_ARRAY = 3;
+
+    /**
+     * End of an array, the payload is the position of its start.
+     *
+     * @since 26.10.17
+     */
+    static final int END_ARRAY = 4;
+
+    /**
+     * Field name, the payload is its index in the string table.
+     *
+     * @since 26.10.17
+     */
+    static final int FIELD_NAME = 5;
+
+    /**
+     * String, the payload is its index in the string table.
+     *
+     * @since 26.10.17
+     */
+    static final int STRING = 6;
+
+    /**
+     * Integer, the payload is the value.
+     *
+     * @since 26.10.17
+     */
+    static final int INT = 7;
+
+    /**
+     * Long, the value is stored in the next slot.
+     *
+     * @since 26.10.17
+     */
+    static final int LONG = 8;
+
+    /**
+     * Float, the payload is the bits of the value.
+     *
+     * @since 26.10.17
+     */
+    static final int FLOAT = 9;
+
+    /**
+     * Double, the bits of the value are stored in the next slot.
+     *
+     * @since 26.10.17
+     */
+    static final int DOUBLE = 10;
+
+    /**
+     * Boolean {@code true}.
+     *
+     * @since 26.10.17
+     */
+    static final int TRUE = 11;
+
+    /**
+     * Boolean {@code false}.
+     *
+     * @since 26.10.17
+     */
+    static final int FALSE = 12;
+
+    /**
+     * Null value.
+     *
+     * @since 26.10.17
+     */
+    static final int NULL = 13;
+
+    /**
+     * Big number, binary data, raw JSON or opaque node, the payload is
+     * its index in the object table.
+     *
+     * @since 26.10.17
+     */
+    static final int OBJECT = 14;
+
+    /**
+     * Number of bits used by the payload.
+     *
+     * @since 26.10.17
+     */
+    static final int PAYLOAD_BITS = 56;
+
+    /**
+     * Mask of the payload.
+     *
+     * @since 26.10.17
+     */
+    static final long PAYLOAD_MASK = (1L << PartialDocument.PAYLOAD_BITS) - 1;
+
+    /**
+     * The tokens.
+     *
+     * @since 26.10.17
+     */
+    private final long[] tape;
+
+    /**
+     * Number of used slots in the tape.
+     *
+     * @since 26.10.17
+     */
+    private final int length;
+
+    /**
+     * Field names and string values.
+     *
+     * @since 26.10.17
+     */
+    private final String[] strings;
+
+    /**
+     * Values which don't fit in the tape.
+     *
+     * @since 26.10.17
+     */
+    private final Object[] objects;
+
+    /**
+     * Object mapper used to write opaque nodes.
+     *
+     * @since 26.10.17
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Build a new instance.
+     *
+     * @param tape         The tokens
+     * @param length       Number of used slots in the tape
+     * @param strings      Field names and string values
+     * @param objects      Values which don't fit in the tape
+     * @param objectMapper Object mapper used to write opaque nodes
+     * @since 26.10.17
+     */
+    PartialDocument(final long[] tape, final int length, final String[] strings, final Object[] objects, final ObjectMapper objectMapper) {
+        this.tape = tape;
+        this.length = length;
+        this.strings = strings;
+        this.objects = objects;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get the root value.
+     *
+     * @return The root value, otherwise, {@code null} if the document is empty
+     * @since 26.10.17
+     */
+    public Value getRoot() {
+        return this.length == 0 ? null : new Value(this, 0);
+    }
+
+    /**
+     * Get the number of slots used by the tape.
+     *
+     * @return The number of slots
+     * @since 26.10.17
+     */
+    public int getTapeLength() {
+        return this.length;
+    }
+
+    /**
+     * Write the document to the given generator. The generator is
+     * neither flushed nor closed.
+     *
+     * @param generator The generator to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        this.write(0, this.length, generator);
+    }
+
+    @Override
+    public String toString() {
+        return this.length == 0 ? "" : this.getRoot().toString();
+    }
+
+    /**
+     * Get the type of the token at the given position.
+     *
+     * @param index The position in the tape
+     * @return The token type
+     * @since 26.10.17
+     */
+    private int typeAt(final int index) {
+        return (int) (this.tape[index] >>> PartialDocument.PAYLOAD_BITS);
+    }
+
+    /**
+     * Get the payload of the token at the given position.
+     *
+     * @param index The position in the tape
+     * @return The payload
+     * @since 26.10.17
+     */
+    private int payloadAt(final int index) {
+        return (int) (this.tape[index] & PartialDocument.PAYLOAD_MASK);
+    }
+
+    /**
+     * Get the position following the value at the given position.
+     *
+     * @param index The position of the value
+     * @return The position of the next token
+     * @since 26.10.17
+     */
+    private int next(final int index) {
+        switch (this.typeAt(index)) {
+            case START_OBJECT:
+            case START_ARRAY:
+                return this.payloadAt(index) + 1;
+            case LONG:
+            case DOUBLE:
+                return index + 2;
+            default:
+                return index + 1;
+        }
+    }
+
+    /**
+     * Write the tokens between the given positions.
+     *
+     * @param from      The position of the first token
+     * @param to        The position following the last token
+     * @param generator The generator to write to
+     * @throws IOException If the tokens can't be written
+     * @since 26.10.17
+     */
+    private void write(final int from, final int to, final JsonGenerator generator) throws IOException {
+        int index = from;
+        while (index < to) {
+            switch (this.typeAt(index)) {
+                case START_OBJECT:
+                    generator.writeStartObject();
+                    break;
+                case END_OBJECT:
+                    generator.writeEndObject();
+                    break;
+                case START_ARRAY:
+                    generator.writeStartArray();
+                    break;
+                case END_ARRAY:
+                    generator.writeEndArray();
+                    break;
+                case FIELD_NAME:
+                    generator.writeFieldName(this.strings[this.payloadAt(index)]);
+                    break;
+                case STRING:
+                    generator.writeString(this.strings[this.payloadAt(index)]);
+                    break;
+                case INT:
+                    generator.writeNumber(this.payloadAt(index));
+                    break;
+                case LONG:
+                    index += 1;
+                    generator.writeNumber(this.tape[index]);
+                    break;
+                case FLOAT:
+                    generator.writeNumber(Float.intBitsToFloat(this.payloadAt(index)));
+                    break;
+                case DOUBLE:
+                    index += 1;
+                    generator.writeNumber(Double.longBitsToDouble(this.tape[index]));
+                    break;
+                case TRUE:
+                    generator.writeBoolean(true);
+                    break;
+                case FALSE:
+                    generator.writeBoolean(false);
+                    break;
+                case NULL:
+                    generator.writeNull();
+                    break;
+                default:
+                    this.writeObject(this.objects[this.payloadAt(index)], generator);
+                    break;
+            }
+            index += 1;
+        }
+    }
+
+    /**
+     * Write a value of the object table.
+     *
+     * @param value     The value to write
+     * @param generator The generator to write to
+     * @throws IOException If the value can't be written
+     * @since 26.10.17
+     */
+    private void writeObject(final Object value, final JsonGenerator generator) throws IOException {
+        if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof byte[]) {
+            generator.writeBinary((byte[]) value);
+        } else if (value instanceof RawJson) {
+            final RawJson rawJson = (RawJson) value;
+            if (!generator.canWriteBinaryNatively()) {
+                generator.writeRawValue(rawJson.asSerializableString());
+                return;
+            }
+            try (JsonParser parser = rawJson.createParser(this.objectMapper.getFactory())) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+        } else {
+            this.objectMapper.writeTree(generator, (JsonNode) value);
+        }
+    }
+
+    /**
+     * Read-only view of a value of the document. Views are created on
+     * demand and only hold a position in the tape.
+     *
+     * @since 26.10.17
+     */
+    public static final class Value {
+
+        /**
+         * The document.
+         *
+         * @since 26.10.17
+         */
+        private final PartialDocument document;
+
+        /**
+         * The position of the value in the tape.
+         *
+         * @since 26.10.17
+         */
+        private final int index;
+
+        /**
+         * Build a new instance.
+         *
+         * @param document The document
+         * @param index    The position of the value in the tape
+         * @since 26.10.17
+         */
+        private Value(final PartialDocument document, final int index) {
+            this.document = document;
+            this.index = index;
+        }
+
+        /**
+         * Get the type of the value. Raw JSON values are reported as
+         * {@code POJO}.
+         *
+         * @return The type of the value
+         * @since 26.10.17
+         */
+        public JsonNodeType getNodeType() {
+            switch (this.document.typeAt(this.index)) {
+                case START_OBJECT:
+                    return JsonNodeType.OBJECT;
+                case START_ARRAY:
+                    return JsonNodeType.ARRAY;
+                case STRING:
+                    return JsonNodeType.STRING;
+                case TRUE:
+                case FALSE:
+                    return JsonNodeType.BOOLEAN;
+                case NULL:
+                    return JsonNodeType.NULL;
+                case OBJECT:
+                    final Object value = this.document.objects[this.document.payloadAt(this.index)];
+                    if (value instanceof Number) {
+                        return JsonNodeType.NUMBER;
+                    } else if (value instanceof byte[]) {
+                        return JsonNodeType.BINARY;
+                    } else if (value instanceof JsonNode) {
+                        return ((JsonNode) value).getNodeType();
+                    }
+                    return JsonNodeType.POJO;
+                default:
+                    return JsonNodeType.NUMBER;
+            }
+        }
+
+        /**
+         * Get the number of fields of an object or items of an array.
+         *
+         * @return The number of fields or items, {@code 0} for other values
+         * @since 26.10.17
+         */
+        public int size() {
+            final int type = this.document.typeAt(this.index);
+            if (type != START_OBJECT && type != START_ARRAY) {
+                return 0;
+            }
+            final int end = this.document.payloadAt(this.index);
+            int count = 0;
+            int position = this.index + 1;
+            while (position < end) {
+                if (type == START_OBJECT) {
+                    position += 1;
+                }
+                position = this.document.next(position);
+                count += 1;
+            }
+            return count;
+        }
+
+        /**
+         * Get the value of the given field of an object.
+         *
+         * @param fieldName The field name
+         * @return The value, otherwise, {@code null} if the field does not exist or if this value is not an object
+         * @since 26.10.17
+         */
+        public Value get(final String fieldName) {
+            if (this.document.typeAt(this.index) != START_OBJECT) {
+                return null;
+            }
+            final int end = this.document.payloadAt(this.index);
+            int position = this.index + 1;
+            while (position < end) {
+                if (fieldName.equals(this.document.strings[this.document.payloadAt(position)])) {
+                    return new Value(this.document, position + 1);
+                }
+                position = this.document.next(position + 1);
+            }
+            return null;
+        }
+
+        /**
+         * Get the item at the given position of an array.
+         *
+         * @param itemIndex The position of the item
+         * @return The item, otherwise, {@code null} if the position is out of bounds or if this value is not an array
+         * @since 26.10.17
+         */
+        public Value get(final int itemIndex) {
+            if (this.document.typeAt(this.index) != START_ARRAY || itemIndex < 0) {
+                return null;
+            }
+            final int end = this.document.payloadAt(this.index);
+            int position = this.index + 1;
+            int count = 0;
+            while (position < end) {
+                if (count == itemIndex) {
+                    return new Value(this.document, position);
+                }
+                position = this.document.next(position);
+                count += 1;
+            }
+            return null;
+        }
+
+        /**
+         * Get the field names of an object, in rendering order.
+         *
+         * @return The field names, empty if this value is not an object
+         * @since 26.10.17
+         */
+        public List<String> getFieldNames() {
+            if (this.document.typeAt(this.index) != START_OBJECT) {
+                return Collections.emptyList();
+            }
+            final List<String> fieldNames = new ArrayList<>();
+            final int end = this.document.payloadAt(this.index);
+            int position = this.index + 1;
+            while (position < end) {
+                fieldNames.add(this.document.strings[this.document.payloadAt(position)]);
+                position = this.document.next(position + 1);
+            }
+            return fieldNames;
+        }
+
+        /**
+         * Check if the value is {@code null}.
+         *
+         * @return {@code true} if the value is {@code null}
+         * @since 26.10.17
+         */
+        public boolean isNull() {
+            return this.getNodeType() == JsonNodeType.NULL;
+        }
+
+        /**
+         * Get the value as a string. Numbers and booleans are converted to
+         * their textual representation.
+         *
+         * @return The value, otherwise, {@code null} if it is a {@code null}, an object or an array
+         * @since 26.10.17
+         */
+        public String asText() {
+            switch (this.document.typeAt(this.index)) {
+                case STRING:
+                    return this.document.strings[this.document.payloadAt(this.index)];
+                case TRUE:
+                    return "true";
+                case FALSE:
+                    return "false";
+                case START_OBJECT:
+                case START_ARRAY:
+                case NULL:
+                    return null;
+                case OBJECT:
+                    final Object value = this.document.objects[this.document.payloadAt(this.index)];
+                    if (value instanceof JsonNode) {
+                        return ((JsonNode) value).asText();
+                    }
+                    return value instanceof Number ? value.toString() : this.toString();
+                default:
+                    return String.valueOf(this.numberValue());
+            }
+        }
+
+        /**
+         * Get the value as a number.
+         *
+         * @return The value, otherwise, {@code null} if it is not a number
+         * @since 26.10.17
+         */
+        public Number numberValue() {
+            switch (this.document.typeAt(this.index)) {
+                case INT:
+                    return this.document.payloadAt(this.index);
+                case LONG:
+                    return this.document.tape[this.index + 1];
+                case FLOAT:
+                    return Float.intBitsToFloat(this.document.payloadAt(this.index));
+                case DOUBLE:
+                    return Double.longBitsToDouble(this.document.tape[this.index + 1]);
+                case OBJECT:
+                    final Object value = this.document.objects[this.document.payloadAt(this.index)];
+                    if (value instanceof Number) {
+                        return (Number) value;
+                    }
+                    return value instanceof JsonNode ? ((JsonNode) value).numberValue() : null;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Get the value as a boolean.
+         *
+         * @return {@code true} if the value is the boolean {@code true}
+         * @since 26.10.17
+         */
+        public boolean booleanValue() {
+            return this.document.typeAt(this.index) == TRUE;
+        }
+
+        /**
+         * Get the value as binary data.
+         *
+         * @return The data, otherwise, {@code null} if the value is not binary
+         * @since 26.10.17
+         */
+        public byte[] binaryValue() {
+            if (this.document.typeAt(this.index) == OBJECT) {
+                final Object value = this.document.objects[this.document.payloadAt(this.index)];
+                if (value instanceof byte[]) {
+                    return (byte[]) value;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Write the value to the given generator. The generator is
+         * neither flushed nor closed.
+         *
+         * @param generator The generator to write to
+         * @throws IOException If the value can't be written
+         * @since 26.10.17
+         */
+        public void writeTo(final JsonGenerator generator) throws IOException {
+            this.document.write(this.index, this.document.next(this.index), generator);
+        }
+
+        @Override
+        public String toString() {
+            final StringWriter writer = new StringWriter();
+            try (JsonGenerator generator = this.document.objectMapper.getFactory().createGenerator(writer)) {
+                this.writeTo(generator);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return writer.toString();
+        }
+    }
+}
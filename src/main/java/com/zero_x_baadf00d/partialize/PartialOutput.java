@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+
+import java.io.IOException;
+
+/**
+ * Destination of a rendering. The same traversal either builds a
+ * JSON tree or emits tokens directly to a generator. Each value is
+ * written with its field name, which is ignored when the current
+ * container is an array. The output also holds the entities of
+ * normalized documents.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+abstract class PartialOutput {
+
+    /**
+     * Entities of the document, {@code null} if the document is not
+     * normalized.
+     *
+     * @since 26.10.17
+     */
+    private EntityTable entityTable;
+
+    /**
+     * Get the entities of the document.
+     *
+     * @return The entities, {@code null} if the document is not normalized
+     * @since 26.10.17
+     */
+    final EntityTable getEntityTable() {
+        return this.entityTable;
+    }
+
+    /**
+     * Set the entities of the document.
+     *
+     * @param entityTable The entities, {@code null} if the document is not normalized
+     * @since 26.10.17
+     */
+    final void setEntityTable(final EntityTable entityTable) {
+        this.entityTable = entityTable;
+    }
+
+    /**
+     * Check if annotated objects are written as views rendered on demand.
+     *
+     * @return {@code true} if annotated objects are written with {@link #writeLazyObject(String, LazyObjectNode)}
+     * @since 26.10.17
+     */
+    boolean isLazy() {
+        return false;
+    }
+
+    /**
+     * Write an annotated object as a view rendered on demand. Only
+     * called on destinations building lazy views.
+     *
+     * @param name The field name
+     * @param node The view
+     * @since 26.10.17
+     */
+    void writeLazyObject(final String name, final LazyObjectNode node) {
+        throw new UnsupportedOperationException("Lazy views are not supported by this destination");
+    }
+
+    /**
+     * Check if the current container is an array.
+     *
+     * @return {@code true} if values are written as array items
+     * @since 26.10.17
+     */
+    abstract boolean inArray();
+
+    /**
+     * Start a new object.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    abstract void startObject(final String name);
+
+    /**
+     * Start a new object expected to hold the given number of fields.
+     * The size is a hint, destinations may ignore it.
+     *
+     * @param name         The field name
+     * @param expectedSize The expected number of fields
+     * @since 26.10.17
+     */
+    void startObject(final String name, final int expectedSize) {
+        this.startObject(name);
+    }
+
+    /**
+     * End the current object.
+     *
+     * @since 26.10.17
+     */
+    abstract void endObject();
+
+    /**
+     * Start a new array.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    abstract void startArray(final String name);
+
+    /**
+     * Start a new array expected to hold the given number of items.
+     * The size is a hint, destinations may ignore it.
+     *
+     * @param name         The field name
+     * @param expectedSize The expected number of items
+     * @since 26.10.17
+     */
+    void startArray(final String name, final int expectedSize) {
+        this.startArray(name);
+    }
+
+    /**
+     * End the current array.
+     *
+     * @since 26.10.17
+     */
+    abstract void endArray();
+
+    /**
+     * Write a null value.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    abstract void writeNull(final String name);
+
+    /**
+     * Write a scalar value, a JSON node or an enum constant.
+     *
+     * @param name        The field name
+     * @param valueWriter The writer resolved for the value class
+     * @param value       The value to write
+     * @since 26.10.17
+     */
+    abstract void writeValue(final String name, final ValueWriter valueWriter, final Object value);
+
+    /**
+     * Write the value read from the given parser. An empty value is
+     * written as an empty object. By default, the value is read as a
+     * tree, so nothing is written if it is malformed.
+     *
+     * @param name   The field name
+     * @param parser The parser, not yet positioned on the value
+     * @throws IOException If the value can't be read
+     * @since 26.10.17
+     */
+    void copyValue(final String name, final JsonParser parser) throws IOException {
+        final JsonNode node = parser.readValueAsTree();
+        if (node == null || node.isMissingNode()) {
+            this.startObject(name);
+            this.endObject();
+        } else {
+            this.writeValue(name, ValueWriter.of(node.getClass()), node);
+        }
+    }
+
+    /**
+     * Write a value with a registered converter.
+     *
+     * @param name      The field name
+     * @param converter The converter to use
+     * @param value     The value to convert
+     * @since 26.10.17
+     */
+    abstract void writeConverted(final String name, final Converter<Object> converter, final Object value);
+}
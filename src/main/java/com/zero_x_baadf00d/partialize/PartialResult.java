@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Encoded partial document, kept in memory or, when it exceeds the
+ * spill threshold, in a temporary file. The document can be written
+ * any number of times until the result is closed; closing the result
+ * deletes the temporary file.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class PartialResult implements Closeable {
+
+    /**
+     * The encoded document, {@code null} if it is stored in a file.
+     *
+     * @since 26.10.17
+     */
+    private final byte[] memory;
+
+    /**
+     * The temporary file, {@code null} if the document is kept in memory.
+     *
+     * @since 26.10.17
+     */
+    private final Path file;
+
+    /**
+     * Size of the encoded document, in bytes.
+     *
+     * @since 26.10.17
+     */
+    private final long size;
+
+    /**
+     * Channel reading the temporary file, {@code null} once closed.
+     *
+     * @since 26.10.17
+     */
+    private FileChannel fileChannel;
+
+    /**
+     * Is this result closed.
+     *
+     * @since 26.10.17
+     */
+    private boolean closed;
+
+    /**
+     * Build a new instance kept in memory.
+     *
+     * @param memory The encoded document
+     * @param size   Size of the encoded document, in bytes
+     * @since 26.10.17
+     */
+    PartialResult(final byte[] memory, final int size) {
+        this.memory = memory;
+        this.file = null;
+        this.size = size;
+    }
+
+    /**
+     * Build a new instance stored in a temporary file.
+     *
+     * @param file        The temporary file
+     * @param fileChannel Channel reading the temporary file
+     * @param size        Size of the encoded document, in bytes
+     * @since 26.10.17
+     */
+    PartialResult(final Path file, final FileChannel fileChannel, final long size) {
+        this.memory = null;
+        this.file = file;
+        this.fileChannel = fileChannel;
+        this.size = size;
+    }
+
+    /**
+     * Get the size of the encoded document.
+     *
+     * @return The size, in bytes
+     * @since 26.10.17
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Check if the document has been moved to a temporary file.
+     *
+     * @return {@code true} if the document is stored in a temporary file
+     * @since 26.10.17
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    /**
+     * Write the document to the given channel. A spilled document is
+     * handed to {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+     * which lets the operating system copy the file without going
+     * through the heap when the channel supports it. The channel must
+     * be in blocking mode, it is not closed.
+     *
+     * @param channel The channel to write to
+     * @return The number of written bytes
+     * @throws IOException If the document can't be written or if the result is closed
+     * @since 26.10.17
+     */
+    public long transferTo(final WritableByteChannel channel) throws IOException {
+        if (this.closed) {
+            throw new IOException("Result closed");
+        }
+        if (this.fileChannel == null) {
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(this.memory, 0, (int) this.size);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        } else {
+            long position = 0;
+            while (position < this.size) {
+                position += this.fileChannel.transferTo(position, this.size - position, channel);
+            }
+        }
+        return this.size;
+    }
+
+    /**
+     * Write the document to the given stream. The stream is flushed
+     * but not closed.
+     *
+     * @param outputStream The stream to write to
+     * @throws IOException If the document can't be written or if the result is closed
+     * @since 26.10.17
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        if (this.fileChannel == null && !this.closed) {
+            outputStream.write(this.memory, 0, (int) this.size);
+        } else {
+            this.transferTo(Channels.newChannel(outputStream));
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Release the document. The temporary file, if any, is deleted.
+     * Closing a closed result has no effect.
+     *
+     * @throws IOException If the temporary file can't be deleted
+     * @since 26.10.17
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        if (this.fileChannel != null) {
+            try {
+                this.fileChannel.close();
+            } finally {
+                this.fileChannel = null;
+                Files.deleteIfExists(this.file);
+            }
+        }
+    }
+}
@@ -23,41 +23,42 @@
  */
 package com.zero_x_baadf00d.partialize;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.zero_x_baadf00d.partialize.converter.Converter;
 import com.zero_x_baadf00d.partialize.policy.AccessPolicy;
-import org.apache.commons.lang3.NotImplementedException;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.text.WordUtils;
+import com.zero_x_baadf00d.partialize.sink.PartialSink;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
-import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * Create a partial JSON document from any kind of objects.
  *
  * @author Thibault Meyer
- * @version 20.12.14
+ * @version 26.10.17
  * @since 16.01.18
  */
 @SuppressWarnings("UnusedReturnValue")
@@ -71,33 +72,40 @@ public class Partialize {
     private static final int DEFAULT_MAXIMUM_DEPTH = 64;
 
     /**
-     * Default scanner delimiter pattern.
+     * Default number of bytes of an encoded result kept in memory.
      *
-     * @since 16.01.18
+     * @since 26.10.17
      */
-    private static final String SCANNER_DELIMITER = ",";
+    private static final int DEFAULT_SPILL_THRESHOLD = 8 * 1024 * 1024;
 
     /**
-     * Method prefixes.
+     * Name of the field referencing an entity in normalized documents.
      *
-     * @since 17.06.28
+     * @since 26.10.17
      */
-    private static final String[] METHOD_PREFIXES = {"get", "is", "has", "can"};
+    private static final String REFERENCE_FIELD = "$ref";
 
     /**
-     * Pattern used to extract arguments.
+     * Object mapper shared by instances built without object mapper.
      *
-     * @since 16.01.18
+     * @since 26.10.17
      */
-    private final Pattern fieldArgsPattern = Pattern.compile("([a-zA-Z0-9]+)\\((.+)\\)");
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
 
     /**
-     * Object mapper used to create new object nodes.
+     * Object mapper used to create generators and to write JSON nodes.
      *
      * @since 16.01.18
      */
     private final ObjectMapper objectMapper;
 
+    /**
+     * Node factory used to build JSON trees.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNodeFactory nodeFactory;
+
     /**
      * The maximum reachable depth level.
      *
@@ -126,6 +134,42 @@ public class Partialize {
      */
     private Consumer<Exception> exceptionConsumer;
 
+    /**
+     * Hash code of the defined aliases, computed once when they are set.
+     *
+     * @since 26.10.17
+     */
+    private int aliasesHash;
+
+    /**
+     * Pool of buffers used to write to channels.
+     *
+     * @since 26.10.17
+     */
+    private ByteBufferPool byteBufferPool;
+
+    /**
+     * Encoding of documents written to streams and channels.
+     *
+     * @since 26.10.17
+     */
+    private OutputFormat outputFormat;
+
+    /**
+     * Maximum number of bytes of an encoded result kept in memory.
+     *
+     * @since 26.10.17
+     */
+    private int spillThreshold;
+
+    /**
+     * Directory of the temporary files receiving spilled results,
+     * {@code null} for the default temporary-file directory.
+     *
+     * @since 26.10.17
+     */
+    private Path spillDirectory;
+
     /**
      * Build a default instance.
      *
@@ -142,11 +186,65 @@ public class Partialize {
      * @since 16.01.18
      */
     public Partialize(final int maximumDepth) {
+        this(maximumDepth, com.zero_x_baadf00d.partialize.Partialize.DEFAULT_OBJECT_MAPPER);
+    }
+
+    /**
+     * Build an instance using the given object mapper, which can be shared
+     * by any number of instances. The object mapper creates the generators
+     * and its node factory builds the JSON trees.
+     *
+     * @param maximumDepth Maximum allowed depth value to set
+     * @param objectMapper The object mapper to use
+     * @since 26.10.17
+     */
+    public Partialize(final int maximumDepth, final ObjectMapper objectMapper) {
+        this(maximumDepth, objectMapper, objectMapper.getNodeFactory());
+    }
+
+    /**
+     * Build an instance using the given node factory to build JSON trees,
+     * which can be shared by any number of instances.
+     *
+     * @param maximumDepth Maximum allowed depth value to set
+     * @param nodeFactory  The node factory to use
+     * @since 26.10.17
+     */
+    public Partialize(final int maximumDepth, final JsonNodeFactory nodeFactory) {
+        this(maximumDepth, com.zero_x_baadf00d.partialize.Partialize.DEFAULT_OBJECT_MAPPER, nodeFactory);
+    }
+
+    /**
+     * Build a new instance.
+     *
+     * @param maximumDepth Maximum allowed depth value to set
+     * @param objectMapper The object mapper to use
+     * @param nodeFactory  The node factory to use
+     * @since 26.10.17
+     */
+    private Partialize(final int maximumDepth, final ObjectMapper objectMapper, final JsonNodeFactory nodeFactory) {
         this.exceptionConsumer = null;
-        this.objectMapper = new ObjectMapper();
+        this.byteBufferPool = new ByteBufferPool();
+        this.outputFormat = OutputFormat.JSON;
+        this.spillThreshold = Partialize.DEFAULT_SPILL_THRESHOLD;
+        this.objectMapper = objectMapper;
+        this.nodeFactory = nodeFactory;
         this.maximumDepth = maximumDepth > 0 ? maximumDepth : 1;
     }
 
+    /**
+     * Compile the given field query. The returned query can be reused
+     * to render any number of objects without being parsed again.
+     *
+     * @param fields The field query to compile
+     * @return The compiled query
+     * @see FieldQuery#compile(String)
+     * @since 26.10.17
+     */
+    public static FieldQuery compile(final String fields) {
+        return FieldQuery.compile(fields);
+    }
+
     /**
      * Defines a field that will be called throughout the process
      * to verify whether the requested element can be integrated or
@@ -175,7 +273,9 @@ public class Partialize {
     }
 
     /**
-     * Defines field aliases.
+     * Defines field aliases. Aliases are taken into account when
+     * render plans are built, the given map must not be modified
+     * once set. Instances with equal aliases share their render plans.
      *
      * @param aliases A {@code Map} defining aliases
      * @return The current instance of {@code Partialize}
@@ -183,6 +283,68 @@ public class Partialize {
      */
     public Partialize setAliases(final Map<String, String> aliases) {
         this.aliases = aliases;
+        this.aliasesHash = aliases == null ? 0 : aliases.hashCode();
+        return this;
+    }
+
+    /**
+     * Set the pool of buffers used to write to channels.
+     *
+     * @param byteBufferPool The pool of buffers to use
+     * @return The current instance of {@code Partialize}
+     * @see #writePartial(String, Class, Object, WritableByteChannel)
+     * @since 26.10.17
+     */
+    public Partialize setByteBufferPool(final ByteBufferPool byteBufferPool) {
+        this.byteBufferPool = byteBufferPool == null ? new ByteBufferPool() : byteBufferPool;
+        return this;
+    }
+
+    /**
+     * Set the encoding of documents written to streams and channels.
+     * Binary formats require the matching Jackson dataformat module.
+     *
+     * @param outputFormat The output format to use
+     * @return The current instance of {@code Partialize}
+     * @throws IllegalStateException If the Jackson dataformat module of a binary format is missing
+     * @since 26.10.17
+     */
+    public Partialize setOutputFormat(final OutputFormat outputFormat) {
+        if (outputFormat != null) {
+            BinaryFactories.check(outputFormat);
+        }
+        this.outputFormat = outputFormat == null ? OutputFormat.JSON : outputFormat;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of bytes of an encoded result kept in memory.
+     * Larger results are moved to a temporary file. The default threshold
+     * is 8 MiB.
+     *
+     * @param spillThreshold The threshold, in bytes, {@code 0} to always use a temporary file
+     * @return The current instance of {@code Partialize}
+     * @throws IllegalArgumentException If the threshold is negative
+     * @see #buildPartialResult(String, Class, Object)
+     * @since 26.10.17
+     */
+    public Partialize setSpillThreshold(final int spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("Spill threshold can't be negative");
+        }
+        this.spillThreshold = spillThreshold;
+        return this;
+    }
+
+    /**
+     * Set the directory of the temporary files receiving spilled results.
+     *
+     * @param spillDirectory The directory, {@code null} for the default temporary-file directory
+     * @return The current instance of {@code Partialize}
+     * @since 26.10.17
+     */
+    public Partialize setSpillDirectory(final Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
         return this;
     }
 
@@ -212,157 +374,938 @@ public class Partialize {
      * @since 16.01.18
      */
     public ContainerNode<?> buildPartialObject(final String fields, final Class<?> clazz, final Object instance) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null
+            ? this.nodeFactory.objectNode()
+            : this.build(fieldQuery, clazz, instance);
+    }
+
+    /**
+     * Build a JSON object from the compiled field query and
+     * the given class type. This is the compiled counterpart of
+     * {@link #buildPartialObject(String, Class)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @return An instance of {@code ContainerNode}
+     * @see ContainerNode
+     * @since 26.10.17
+     */
+    public ContainerNode<?> build(final FieldQuery fieldQuery, final Class<?> clazz) {
+        return this.build(fieldQuery, clazz, null);
+    }
+
+    /**
+     * Build a JSON object from the compiled field query and
+     * the given class type and instance. This is the compiled
+     * counterpart of {@link #buildPartialObject(String, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @return An instance of {@code ContainerNode}
+     * @see ContainerNode
+     * @since 26.10.17
+     */
+    public ContainerNode<?> build(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory);
+        this.render(fieldQuery, clazz, instance, output, null);
+        return output.getRoot();
+    }
+
+    /**
+     * Build a read-only lazy view from data taken from the scanner and the
+     * given class type and instance. Getters are only invoked when the
+     * field they render is read, or when the whole object is iterated or
+     * serialized; rendered fields are memoized. Access policies and
+     * exception callbacks are applied at that time. The instance must not
+     * change while the view is in use.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @return An instance of {@code ContainerNode}
+     * @see ContainerNode
+     * @since 26.10.17
+     */
+    public ContainerNode<?> buildPartialView(final String fields, final Class<?> clazz, final Object instance) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null
+            ? this.nodeFactory.objectNode()
+            : this.buildView(fieldQuery, clazz, instance);
+    }
+
+    /**
+     * Build a read-only lazy view from the compiled field query and the
+     * given class type and instance. This is the compiled counterpart of
+     * {@link #buildPartialView(String, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @return An instance of {@code ContainerNode}
+     * @see ContainerNode
+     * @since 26.10.17
+     */
+    public ContainerNode<?> buildView(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory, true);
+        this.render(fieldQuery, clazz, instance, output, null);
+        return output.getRoot();
+    }
+
+    /**
+     * Build a compact read-only document from data taken from the scanner
+     * and the given class type and instance. Tokens are packed in a single
+     * array instead of a tree of nodes, the document can be navigated and
+     * written to a generator.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @return An instance of {@code PartialDocument}
+     * @see PartialDocument
+     * @since 26.10.17
+     */
+    public PartialDocument buildPartialDocument(final String fields, final Class<?> clazz, final Object instance) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery == null) {
+            final TapePartialOutput output = new TapePartialOutput(this.objectMapper, this.nodeFactory);
+            output.startObject(null);
+            output.endObject();
+            return output.toDocument();
+        }
+        return this.buildDocument(fieldQuery, clazz, instance);
+    }
+
+    /**
+     * Build a compact read-only document from the compiled field query and
+     * the given class type and instance. This is the compiled counterpart
+     * of {@link #buildPartialDocument(String, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @return An instance of {@code PartialDocument}
+     * @see PartialDocument
+     * @since 26.10.17
+     */
+    public PartialDocument buildDocument(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance) {
+        final TapePartialOutput output = new TapePartialOutput(this.objectMapper, this.nodeFactory);
+        this.render(fieldQuery, clazz, instance, output, null);
+        return output.toDocument();
+    }
+
+    /**
+     * Build a columnar JSON object from data taken from the scanner and the
+     * given instances, all of the given class type. Field names are written
+     * once, in {@code columns}, and each instance is written as an array of
+     * values, in {@code rows}. A cell is {@code null} when its value is
+     * {@code null} or can't be read.
+     *
+     * @param fields    The field query to request
+     * @param clazz     The class of the objects to render
+     * @param instances The instances to render, one per row
+     * @return An instance of {@code ObjectNode}
+     * @since 26.10.17
+     */
+    public ObjectNode buildPartialColumns(final String fields, final Class<?> clazz, final Iterable<?> instances) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null
+            ? this.nodeFactory.objectNode()
+            : this.buildColumns(fieldQuery, clazz, instances);
+    }
+
+    /**
+     * Build a columnar JSON object from the compiled field query and the
+     * given instances, all of the given class type. This is the compiled
+     * counterpart of {@link #buildPartialColumns(String, Class, Iterable)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the objects to render
+     * @param instances  The instances to render, one per row
+     * @return An instance of {@code ObjectNode}
+     * @since 26.10.17
+     */
+    public ObjectNode buildColumns(final FieldQuery fieldQuery, final Class<?> clazz, final Iterable<?> instances) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory);
+        this.renderColumns(fieldQuery, clazz, instances, output);
+        return (ObjectNode) output.getRoot();
+    }
+
+    /**
+     * Write a columnar JSON object from the compiled field query and the
+     * given instances, all of the given class type, directly to the given
+     * generator. This is the streaming counterpart of
+     * {@link #buildColumns(FieldQuery, Class, Iterable)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the objects to render
+     * @param instances  The instances to render, one per row
+     * @param generator  The generator to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void writeColumns(final FieldQuery fieldQuery, final Class<?> clazz, final Iterable<?> instances,
+                             final JsonGenerator generator) throws IOException {
+        try {
+            this.renderColumns(fieldQuery, clazz, instances, new StreamPartialOutput(this.objectMapper, this.nodeFactory, generator));
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Write data taken from the scanner and the given instances, all of the
+     * given class type, as delimited text directly to the given writer. The
+     * first line holds the field names, then each instance is written on its
+     * own line. Null instances are skipped, objects and arrays found in cells
+     * are written as JSON text. The writer is flushed but not closed.
+     *
+     * @param fields    The field query to request
+     * @param clazz     The class of the objects to render
+     * @param instances The instances to render, one per line
+     * @param format    The delimited format to use
+     * @param writer    The writer to write to
+     * @throws IOException If a line can't be written
+     * @since 26.10.17
+     */
+    public void writePartialDelimited(final String fields, final Class<?> clazz, final Iterable<?> instances,
+                                      final DelimitedFormat format, final Writer writer) throws IOException {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery != null) {
+            this.writeDelimited(fieldQuery, clazz, instances, format, writer);
+        }
+    }
+
+    /**
+     * Write the compiled field query and the given instances, all of the
+     * given class type, as delimited text directly to the given writer.
+     * This is the compiled counterpart of
+     * {@link #writePartialDelimited(String, Class, Iterable, DelimitedFormat, Writer)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the objects to render
+     * @param instances  The instances to render, one per line
+     * @param format     The delimited format to use
+     * @param writer     The writer to write to
+     * @throws IOException If a line can't be written
+     * @since 26.10.17
+     */
+    public void writeDelimited(final FieldQuery fieldQuery, final Class<?> clazz, final Iterable<?> instances,
+                               final DelimitedFormat format, final Writer writer) throws IOException {
+        try {
+            this.renderColumns(
+                fieldQuery,
+                clazz,
+                instances,
+                new DelimitedPartialOutput(writer, format, this.nodeFactory)
+            );
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Build a normalized JSON object from data taken from the scanner and
+     * the given class type and instance. The rendered document is held by
+     * {@code data}. Each distinct annotated sub-object is rendered once, in
+     * {@code entities}, and replaced everywhere else by a {@code $ref} field
+     * holding its key. Instances are identified by their identifier field,
+     * otherwise, by reference.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @return An instance of {@code ObjectNode}
+     * @see com.zero_x_baadf00d.partialize.annotation.Partialize#identifierField()
+     * @since 26.10.17
+     */
+    public ObjectNode buildPartialNormalized(final String fields, final Class<?> clazz, final Object instance) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null
+            ? this.nodeFactory.objectNode()
+            : this.buildNormalized(fieldQuery, clazz, instance);
+    }
+
+    /**
+     * Build a normalized JSON object from the compiled field query and the
+     * given class type and instance. This is the compiled counterpart of
+     * {@link #buildPartialNormalized(String, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @return An instance of {@code ObjectNode}
+     * @since 26.10.17
+     */
+    public ObjectNode buildNormalized(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory);
+        this.renderNormalized(fieldQuery, clazz, instance, output);
+        return (ObjectNode) output.getRoot();
+    }
+
+    /**
+     * Write a normalized JSON object from the compiled field query and the
+     * given class type and instance directly to the given generator. This
+     * is the streaming counterpart of
+     * {@link #buildNormalized(FieldQuery, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param generator  The generator to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void writeNormalized(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance,
+                                final JsonGenerator generator) throws IOException {
+        try {
+            this.renderNormalized(fieldQuery, clazz, instance, new StreamPartialOutput(this.objectMapper, this.nodeFactory, generator));
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Render a partial JSON object from data taken from the scanner and the
+     * given class type and instance directly into the given existing object,
+     * for instance, a response envelope. The rendered fields are added to the
+     * object, replacing fields with the same name.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render, must not be a collection
+     * @param target   The object to render into
+     * @return The given object
+     * @throws IllegalArgumentException If the instance is a collection
+     * @since 26.10.17
+     */
+    public ObjectNode buildPartialObject(final String fields, final Class<?> clazz, final Object instance, final ObjectNode target) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null ? target : this.build(fieldQuery, clazz, instance, target);
+    }
+
+    /**
+     * Render a partial JSON document from data taken from the scanner and the
+     * given class type and instance directly into the given existing array.
+     * Items of a collection are added to the array, any other instance is
+     * added as a single item.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param target   The array to render into
+     * @return The given array
+     * @since 26.10.17
+     */
+    public ArrayNode buildPartialObject(final String fields, final Class<?> clazz, final Object instance, final ArrayNode target) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null ? target : this.build(fieldQuery, clazz, instance, target);
+    }
+
+    /**
+     * Render a partial JSON object from the compiled field query and the
+     * given class type and instance directly into the given existing object.
+     * This is the compiled counterpart of
+     * {@link #buildPartialObject(String, Class, Object, ObjectNode)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render, must not be a collection
+     * @param target     The object to render into
+     * @return The given object
+     * @throws IllegalArgumentException If the instance is a collection
+     * @since 26.10.17
+     */
+    public ObjectNode build(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance, final ObjectNode target) {
+        if (instance instanceof Collection<?>) {
+            throw new IllegalArgumentException("A collection can't be rendered into an object node");
+        }
+        this.render(fieldQuery, clazz, instance, new TreePartialOutput(this.nodeFactory, target), null);
+        return target;
+    }
+
+    /**
+     * Render a partial JSON document from the compiled field query and the
+     * given class type and instance directly into the given existing array.
+     * This is the compiled counterpart of
+     * {@link #buildPartialObject(String, Class, Object, ArrayNode)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param target     The array to render into
+     * @return The given array
+     * @since 26.10.17
+     */
+    public ArrayNode build(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance, final ArrayNode target) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory, target);
         if (instance instanceof Collection<?>) {
-            final ArrayNode partialArray = this.objectMapper.createArrayNode();
-            if (((Collection<?>) instance).size() > 0) {
-                for (final Object o : (Collection<?>) instance) {
-                    partialArray.add(this.buildPartialObject(-1, fields, o.getClass(), o));
+            this.renderItems(fieldQuery == null ? FieldQuery.EMPTY : fieldQuery, (Collection<?>) instance, output);
+        } else {
+            this.render(fieldQuery, clazz, instance, output, null);
+        }
+        return target;
+    }
+
+    /**
+     * Write a partial JSON document from data taken from the scanner and
+     * the given class type and instance directly to the given generator,
+     * without building an intermediate tree. The generator is neither
+     * flushed nor closed.
+     *
+     * @param fields    The field query to request
+     * @param clazz     The class of the object to render
+     * @param instance  The instance of the object to render
+     * @param generator The generator to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void writePartial(final String fields, final Class<?> clazz, final Object instance,
+                             final JsonGenerator generator) throws IOException {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery == null) {
+            generator.writeStartObject();
+            generator.writeEndObject();
+        } else {
+            this.write(fieldQuery, clazz, instance, generator);
+        }
+    }
+
+    /**
+     * Write a partial document, encoded with the configured output format,
+     * from data taken from the scanner and the given class type and instance
+     * directly to the given stream. The stream is flushed but not closed.
+     *
+     * @param fields       The field query to request
+     * @param clazz        The class of the object to render
+     * @param instance     The instance of the object to render
+     * @param outputStream The stream to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void writePartial(final String fields, final Class<?> clazz, final Object instance,
+                             final OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = this.createGenerator(outputStream)) {
+            this.writePartial(fields, clazz, instance, generator);
+        }
+    }
+
+    /**
+     * Encode a partial document, with the configured output format, from
+     * data taken from the scanner and the given class type and instance.
+     * The document is kept in memory up to the spill threshold, beyond
+     * which it is moved to a temporary file, so that rendering a large
+     * collection does not hold the whole document in the heap. The result
+     * must be closed to delete the temporary file.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @return The encoded document
+     * @throws IOException If the document can't be written
+     * @see #setSpillThreshold(int)
+     * @since 26.10.17
+     */
+    public PartialResult buildPartialResult(final String fields, final Class<?> clazz, final Object instance) throws IOException {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery != null) {
+            return this.buildResult(fieldQuery, clazz, instance);
+        }
+        final SpillOutputStream outputStream = new SpillOutputStream(this.spillThreshold, this.spillDirectory,
+            SpillOutputStream.DEFAULT_INITIAL_CAPACITY);
+        try (JsonGenerator generator = this.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeEndObject();
+        }
+        return outputStream.toResult();
+    }
+
+    /**
+     * Encode a partial document, with the configured output format, from
+     * the compiled field query and the given class type and instance. This
+     * is the compiled counterpart of
+     * {@link #buildPartialResult(String, Class, Object)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @return The encoded document
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public PartialResult buildResult(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance) throws IOException {
+        final RenderStatistics statistics = this.getStatistics(fieldQuery == null ? FieldQuery.EMPTY : fieldQuery, clazz);
+        final SpillOutputStream outputStream = new SpillOutputStream(this.spillThreshold, this.spillDirectory, statistics == null
+            ? SpillOutputStream.DEFAULT_INITIAL_CAPACITY
+            : statistics.expectedOutputBytes(SpillOutputStream.DEFAULT_INITIAL_CAPACITY));
+        boolean written = false;
+        try (JsonGenerator generator = this.createGenerator(outputStream)) {
+            this.write(fieldQuery, clazz, instance, generator);
+            written = true;
+        } finally {
+            if (!written) {
+                outputStream.close();
+            }
+        }
+        final PartialResult result = outputStream.toResult();
+        if (statistics != null) {
+            statistics.recordOutput(result.size());
+        }
+        return result;
+    }
+
+    /**
+     * Get the running statistics of the renders of the given class type
+     * with the given field query. Statistics are shared by all instances.
+     *
+     * @param fields The field query
+     * @param clazz  The rendered class
+     * @return The statistics, otherwise, {@code null} if the class is not annotated or the query is malformed
+     * @see RenderStatistics
+     * @since 26.10.17
+     */
+    public RenderStatistics getStatistics(final String fields, final Class<?> clazz) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        return fieldQuery == null ? null : this.getStatistics(fieldQuery, clazz);
+    }
+
+    /**
+     * Get the running statistics of the renders of the given class type
+     * with the compiled field query. This is the compiled counterpart of
+     * {@link #getStatistics(String, Class)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The rendered class
+     * @return The statistics, otherwise, {@code null} if the class is not annotated
+     * @see RenderStatistics
+     * @since 26.10.17
+     */
+    public RenderStatistics getStatistics(final FieldQuery fieldQuery, final Class<?> clazz) {
+        return clazz != null && ClassDescriptor.of(clazz).isAnnotated()
+            ? RenderStatistics.of(clazz, fieldQuery == null ? FieldQuery.EMPTY : fieldQuery)
+            : null;
+    }
+
+    /**
+     * Write a partial JSON document from data taken from the scanner and
+     * the given class type and instance directly to the given writer. The
+     * writer is flushed but not closed. Binary output formats can't be
+     * written to a writer.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param writer   The writer to write to
+     * @throws IOException           If the document can't be written
+     * @throws IllegalStateException If the output format is a binary format
+     * @since 26.10.17
+     */
+    public void writePartial(final String fields, final Class<?> clazz, final Object instance,
+                             final Writer writer) throws IOException {
+        if (this.outputFormat != OutputFormat.JSON) {
+            throw new IllegalStateException(this.outputFormat + " is a binary format, it can't be written to a Writer");
+        }
+        try (JsonGenerator generator = Partialize.prepareGenerator(this.objectMapper.getFactory().createGenerator(writer))) {
+            this.writePartial(fields, clazz, instance, generator);
+        }
+    }
+
+    /**
+     * Write a partial document, encoded with the configured output format,
+     * from data taken from the scanner and the given class type and instance
+     * directly to the given channel. The document is encoded into a buffer taken from the
+     * pool, which is handed to the channel each time it is full, and given
+     * back to the pool once the document is written. The channel must be
+     * in blocking mode, it is not closed.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param channel  The channel to write to
+     * @throws IOException If the document can't be written
+     * @see #setByteBufferPool(ByteBufferPool)
+     * @since 26.10.17
+     */
+    public void writePartial(final String fields, final Class<?> clazz, final Object instance,
+                             final WritableByteChannel channel) throws IOException {
+        try (OutputStream outputStream = new ChannelOutputStream(channel, this.byteBufferPool)) {
+            this.writePartial(fields, clazz, instance, outputStream);
+        }
+    }
+
+    /**
+     * Write each instance as a partial JSON document on its own line
+     * (NDJSON) directly to the given stream. Each line is written as soon
+     * as its instance is rendered, so when instances are produced lazily
+     * by the iterable, memory usage does not depend on their number. The
+     * output format setting is ignored, lines are always JSON. Nothing is
+     * written if the field query is malformed and an exception callback
+     * is set. The stream is flushed but not closed.
+     *
+     * @param fields       The field query to request
+     * @param instances    The instances to render, one per line
+     * @param outputStream The stream to write to
+     * @throws IOException If a line can't be written
+     * @since 26.10.17
+     */
+    public void writePartialLines(final String fields, final Iterable<?> instances,
+                                  final OutputStream outputStream) throws IOException {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery != null) {
+            this.writeLines(fieldQuery, instances, outputStream);
+        }
+    }
+
+    /**
+     * Write each instance as a partial JSON document on its own line
+     * (NDJSON) from the compiled field query directly to the given stream.
+     * This is the compiled counterpart of
+     * {@link #writePartialLines(String, Iterable, OutputStream)}.
+     *
+     * @param fieldQuery   The compiled field query
+     * @param instances    The instances to render, one per line
+     * @param outputStream The stream to write to
+     * @throws IOException If a line can't be written
+     * @since 26.10.17
+     */
+    public void writeLines(final FieldQuery fieldQuery, final Iterable<?> instances,
+                           final OutputStream outputStream) throws IOException {
+        final FieldQuery query = fieldQuery == null ? FieldQuery.EMPTY : fieldQuery;
+        try (JsonGenerator generator = Partialize.prepareGenerator(this.objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8))) {
+            generator.setRootValueSeparator(null);
+            final PartialOutput output = new StreamPartialOutput(this.objectMapper, this.nodeFactory, generator);
+            for (final Object o : instances) {
+                if (o == null) {
+                    output.writeNull(null);
+                } else {
+                    this.buildPartialObject(0, query, o.getClass(), o, output, null);
                 }
+                generator.writeRaw('\n');
+            }
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Write a partial JSON document from the compiled field query and
+     * the given class type and instance directly to the given generator.
+     * This is the compiled counterpart of
+     * {@link #writePartial(String, Class, Object, JsonGenerator)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param generator  The generator to write to
+     * @throws IOException If the document can't be written
+     * @since 26.10.17
+     */
+    public void write(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance,
+                      final JsonGenerator generator) throws IOException {
+        try {
+            this.render(fieldQuery, clazz, instance, new StreamPartialOutput(this.objectMapper, this.nodeFactory, generator), null);
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Render a partial document from data taken from the scanner and the
+     * given class type and instance as events sent to the given sink,
+     * without building an intermediate tree.
+     *
+     * @param fields   The field query to request
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param sink     The sink to send events to
+     * @since 26.10.17
+     */
+    public void renderPartial(final String fields, final Class<?> clazz, final Object instance, final PartialSink sink) {
+        final FieldQuery fieldQuery = this.compileQuery(fields);
+        if (fieldQuery == null) {
+            sink.beginObject();
+            sink.endObject();
+        } else {
+            this.render(fieldQuery, clazz, instance, sink);
+        }
+    }
+
+    /**
+     * Render a partial document from the compiled field query and the
+     * given class type and instance as events sent to the given sink.
+     * This is the compiled counterpart of
+     * {@link #renderPartial(String, Class, Object, PartialSink)}.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param sink       The sink to send events to
+     * @since 26.10.17
+     */
+    public void render(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance, final PartialSink sink) {
+        this.render(fieldQuery, clazz, instance, new SinkPartialOutput(sink), null);
+    }
+
+    /**
+     * Render the given instance to the given destination.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param output     The rendering destination
+     * @param name       The field name
+     * @since 26.10.17
+     */
+    private void render(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance,
+                        final PartialOutput output, final String name) {
+        final FieldQuery query = fieldQuery == null ? FieldQuery.EMPTY : fieldQuery;
+        if (instance instanceof Collection<?>) {
+            final Collection<?> items = (Collection<?>) instance;
+            output.startArray(name, items.size());
+            this.renderItems(query, items, output);
+            output.endArray();
+            final RenderStatistics statistics = this.getStatistics(query, clazz);
+            if (statistics != null) {
+                statistics.recordCollection(items.size());
             }
-            return partialArray;
         } else {
-            return this.buildPartialObject(0, fields, clazz, instance);
+            this.buildPartialObject(0, query, clazz, instance, output, name);
         }
     }
 
     /**
-     * Add requested item on the partial JSON document.
+     * Render the items of a top-level collection in the current array.
      *
-     * @param depth        Current depth level
-     * @param aliasField   The alias field name
-     * @param args         The field Arguments
-     * @param partialArray The current partial JSON document part
-     * @param object       The object to add
-     * @since 16.01.18
+     * @param fieldQuery The compiled field query
+     * @param items      The items to render
+     * @param output     The rendering destination
+     * @since 26.10.17
      */
-    private void internalBuild(final int depth, final String aliasField, final String args,
-                               final ArrayNode partialArray, final Object object) {
-        if (depth < this.maximumDepth) {
-            if (object == null) {
-                partialArray.addNull();
-            } else if (object instanceof String) {
-                partialArray.add((String) object);
-            } else if (object instanceof Short) {
-                partialArray.add((Short) object);
-            } else if (object instanceof Integer) {
-                partialArray.add((Integer) object);
-            } else if (object instanceof Long) {
-                partialArray.add((Long) object);
-            } else if (object instanceof Float) {
-                partialArray.add((Float) object);
-            } else if (object instanceof Double) {
-                partialArray.add((Double) object);
-            } else if (object instanceof BigInteger) {
-                partialArray.add((BigInteger) object);
-            } else if (object instanceof BigDecimal) {
-                partialArray.add((BigDecimal) object);
-            } else if (object instanceof UUID) {
-                partialArray.add(object.toString());
-            } else if (object instanceof Boolean) {
-                partialArray.add((Boolean) object);
-            } else if (object instanceof JsonNode) {
-                partialArray.addPOJO(object);
-            } else if (object instanceof Collection<?>) {
-                final ArrayNode anotherPartialArray = partialArray.addArray();
-                if (((Collection<?>) object).size() > 0) {
-                    for (final Object o : (Collection<?>) object) {
-                        this.internalBuild(depth + 1, aliasField, args, anotherPartialArray, o);
-                    }
-                }
-            } else if (object instanceof Enum) {
-                final String tmp = object.toString();
-                try {
-                    partialArray.add(Integer.valueOf(tmp));
-                } catch (final NumberFormatException ignore) {
-                    partialArray.add(tmp);
-                }
+    private void renderItems(final FieldQuery fieldQuery, final Collection<?> items, final PartialOutput output) {
+        for (final Object o : items) {
+            this.buildPartialObject(-1, fieldQuery, o.getClass(), o, output, null);
+        }
+    }
+
+    /**
+     * Render the given instance to the given destination as a normalized
+     * document. Entities are rendered after the document, in the order
+     * they are met, until no new entity is referenced.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the object to render
+     * @param instance   The instance of the object to render
+     * @param output     The rendering destination
+     * @since 26.10.17
+     */
+    private void renderNormalized(final FieldQuery fieldQuery, final Class<?> clazz, final Object instance,
+                                  final PartialOutput output) {
+        final EntityTable entityTable = new EntityTable(instance instanceof Collection<?> ? -1 : 0);
+        output.setEntityTable(entityTable);
+        output.startObject(null);
+        this.render(fieldQuery, clazz, instance, output, "data");
+        output.startObject("entities");
+        EntityTable.Entity entity = entityTable.poll();
+        while (entity != null) {
+            output.startObject(entity.key);
+            this.executeRenderPlan(entity.depth, entity.renderPlan, entity.instance, output);
+            output.endObject();
+            entity = entityTable.poll();
+        }
+        output.endObject();
+        output.endObject();
+    }
+
+    /**
+     * Render the given instances to the given destination as columns
+     * and rows. The render plan of the class is resolved once and
+     * reused for every row.
+     *
+     * @param fieldQuery The compiled field query
+     * @param clazz      The class of the objects to render
+     * @param instances  The instances to render, one per row
+     * @param output     The rendering destination
+     * @since 26.10.17
+     */
+    private void renderColumns(final FieldQuery fieldQuery, final Class<?> clazz, final Iterable<?> instances,
+                               final PartialOutput output) {
+        if (!ClassDescriptor.of(clazz).isAnnotated()) {
+            final RuntimeException runtimeException = new RuntimeException("Can't convert " + clazz.getCanonicalName());
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(runtimeException);
             } else {
-                final Converter<Object> converter = PartializeConverterManager.getInstance().getConverter(object.getClass());
-                if (converter != null) {
-                    converter.convert(aliasField, object, partialArray);
-                } else {
-                    partialArray.add(this.buildPartialObject(depth + 1, args, object.getClass(), object));
+                throw runtimeException;
+            }
+            output.startObject(null);
+            output.endObject();
+            return;
+        }
+
+        final RenderPlan renderPlan = this.getRenderPlan(clazz, fieldQuery);
+        final ValueWriter columnWriter = ValueWriter.of(String.class);
+        output.startObject(null);
+        output.startArray("columns");
+        for (final RenderPlan.Step step : renderPlan.getSteps()) {
+            output.writeValue(null, columnWriter, step.outputName);
+        }
+        output.endArray();
+        output.startArray("rows", renderPlan.getStatistics().expectedElementCount(0));
+        int rowCount = 0;
+        for (final Object instance : instances) {
+            if (instance == null || !clazz.isInstance(instance)) {
+                output.writeNull(null);
+            } else {
+                output.startArray(null, renderPlan.getSteps().length);
+                for (final RenderPlan.Step step : renderPlan.getSteps()) {
+                    this.writeCell(step, clazz, instance, output);
+                }
+                output.endArray();
+            }
+            rowCount += 1;
+        }
+        output.endArray();
+        output.endObject();
+        renderPlan.getStatistics().recordCollection(rowCount);
+    }
+
+    /**
+     * Write the value of the given step as a row cell. Exactly one value
+     * is written, {@code null} if the field can't be read, to keep cells
+     * aligned with the columns.
+     *
+     * @param step     The step of the render plan
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param output   The rendering destination
+     * @since 26.10.17
+     */
+    private void writeCell(final RenderPlan.Step step, final Class<?> clazz, final Object instance, final PartialOutput output) {
+        if (step.getter == null) {
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(step.failure);
+            }
+            output.writeNull(null);
+        } else if (!this.isAccessGranted(clazz, instance, step.field)) {
+            output.writeNull(null);
+        } else {
+            final Object value;
+            try {
+                value = step.getter.get(instance);
+            } catch (final InvocationTargetException ex) {
+                if (this.exceptionConsumer != null) {
+                    this.exceptionConsumer.accept(ex);
                 }
+                output.writeNull(null);
+                return;
+            }
+            this.writeValue(0, step.outputName, step.args, output, value);
+        }
+    }
+
+    /**
+     * Apply the given sub-query on a raw JSON value. The value is read as
+     * a stream of tokens, only the requested properties are kept and
+     * copied to the rendering destination.
+     *
+     * @param aliasField The alias field name
+     * @param args       The sub-query to apply
+     * @param output     The rendering destination
+     * @param rawJson    The raw JSON value
+     * @since 26.10.17
+     */
+    private void writeFilteredRawJson(final String aliasField, final FieldQuery args,
+                                      final PartialOutput output, final RawJson rawJson) {
+        try (JsonParser parser = new FilteringParserDelegate(
+            rawJson.createParser(this.objectMapper.getFactory()),
+            new RawJsonFilter(args),
+            TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH,
+            true
+        )) {
+            output.copyValue(aliasField, parser);
+        } catch (final IOException ex) {
+            if (this.exceptionConsumer == null) {
+                throw new UncheckedIOException(ex);
             }
+            this.exceptionConsumer.accept(ex);
+            output.writeNull(aliasField);
         }
     }
 
     /**
      * Add requested item on the partial JSON document.
      *
-     * @param depth         Current depth level
-     * @param aliasField    The alias field name
-     * @param args          The field Arguments
-     * @param partialObject The current partial JSON document part
-     * @param object        The object to add
+     * @param depth      Current depth level
+     * @param aliasField The alias field name
+     * @param args       The field Arguments
+     * @param output     The rendering destination
+     * @param value      The object to add
      * @since 16.01.18
      */
-    private void internalBuild(final int depth, final String aliasField, final String args,
-                               final ObjectNode partialObject, Object object) {
-        if (depth <= this.maximumDepth) {
-            if (object instanceof Optional) {
-                object = ((Optional<?>) object).orElse(null);
-            }
-            if (object == null) {
-                partialObject.putNull(aliasField);
-            } else if (object instanceof String) {
-                partialObject.put(aliasField, (String) object);
-            } else if (object instanceof Short) {
-                partialObject.put(aliasField, (Short) object);
-            } else if (object instanceof Integer) {
-                partialObject.put(aliasField, (Integer) object);
-            } else if (object instanceof Long) {
-                partialObject.put(aliasField, (Long) object);
-            } else if (object instanceof Float) {
-                partialObject.put(aliasField, (Float) object);
-            } else if (object instanceof Double) {
-                partialObject.put(aliasField, (Double) object);
-            } else if (object instanceof BigInteger) {
-                partialObject.put(aliasField, (BigInteger) object);
-            } else if (object instanceof BigDecimal) {
-                partialObject.put(aliasField, (BigDecimal) object);
-            } else if (object instanceof UUID) {
-                partialObject.put(aliasField, object.toString());
-            } else if (object instanceof Boolean) {
-                partialObject.put(aliasField, (Boolean) object);
-            } else if (object instanceof JsonNode) {
-                partialObject.putPOJO(aliasField, object);
-            } else if (object instanceof Collection<?>) {
-                final ArrayNode partialArray = partialObject.putArray(aliasField);
-                if (((Collection<?>) object).size() > 0) {
-                    for (final Object o : (Collection<?>) object) {
-                        this.internalBuild(depth, aliasField, args, partialArray, o);
-                    }
+    private void internalBuild(final int depth, final String aliasField, final FieldQuery args,
+                               final PartialOutput output, final Object value) {
+        if (output.inArray() ? depth < this.maximumDepth : depth <= this.maximumDepth) {
+            this.writeValue(depth, aliasField, args, output, value);
+        }
+    }
+
+    /**
+     * Write a value either as a field of the current object, or as an
+     * item of the current array.
+     *
+     * @param depth      Current depth level
+     * @param aliasField The alias field name
+     * @param args       The field Arguments
+     * @param output     The rendering destination
+     * @param value      The value to write
+     * @since 26.10.17
+     */
+    private void writeValue(final int depth, final String aliasField, final FieldQuery args,
+                            final PartialOutput output, final Object value) {
+        if (value == null) {
+            output.writeNull(aliasField);
+            return;
+        }
+
+        final ValueWriter valueWriter = ValueWriter.of(value.getClass());
+        switch (valueWriter.getKind()) {
+            case OPTIONAL:
+                this.writeValue(depth, aliasField, args, output, ((Optional<?>) value).orElse(null));
+                break;
+            case COLLECTION:
+                final int itemDepth = output.inArray() ? depth + 1 : depth;
+                output.startArray(aliasField, ((Collection<?>) value).size());
+                for (final Object o : (Collection<?>) value) {
+                    this.internalBuild(itemDepth, aliasField, args, output, o);
                 }
-            } else if (object instanceof Map<?, ?>) {
-                this.buildPartialObject(
-                    depth + 1,
-                    args,
-                    object.getClass(),
-                    object,
-                    partialObject.putObject(aliasField)
-                );
-            } else if (object instanceof Enum) {
-                final String tmp = object.toString();
-                try {
-                    partialObject.put(aliasField, Integer.valueOf(tmp));
-                } catch (final NumberFormatException ignore) {
-                    partialObject.put(aliasField, tmp);
+                output.endArray();
+                break;
+            case CONVERTER:
+                output.writeConverted(aliasField, valueWriter.getConverter(), value);
+                break;
+            case BINARY_STREAM:
+            case TEXT_STREAM:
+                try (Closeable closeable = (Closeable) value) {
+                    output.writeValue(aliasField, valueWriter, closeable);
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
                 }
-            } else {
-                final Converter<Object> converter = PartializeConverterManager.getInstance().getConverter(object.getClass());
-                if (converter != null) {
-                    converter.convert(aliasField, object, partialObject);
+                break;
+            case RAW_JSON:
+                if (args == null || args.isEmpty()) {
+                    output.writeValue(aliasField, valueWriter, value);
                 } else {
-                    this.buildPartialObject(
-                        depth + 1,
-                        args,
-                        object.getClass(),
-                        object,
-                        partialObject.putObject(aliasField)
-                    );
+                    this.writeFilteredRawJson(aliasField, args, output, (RawJson) value);
                 }
-            }
+                break;
+            case MAP:
+            case OBJECT:
+                this.buildPartialObject(depth + 1, args, value.getClass(), value, output, aliasField);
+                break;
+            default:
+                output.writeValue(aliasField, valueWriter, value);
+                break;
         }
     }
 
@@ -371,188 +1314,332 @@ public class Partialize {
      * the given class type and instance.
      *
      * @param depth    The current depth
-     * @param fields   The field names to requests
+     * @param fields   The compiled field query
      * @param clazz    The class of the object to render
      * @param instance The instance of the object to render
-     * @return A JSON Object
+     * @param output   The rendering destination
+     * @param name     The field name of the object
      * @since 16.01.18
      */
-    private ContainerNode<?> buildPartialObject(final int depth, final String fields,
-                                                final Class<?> clazz, final Object instance) {
-        return this.buildPartialObject(depth, fields, clazz, instance, this.objectMapper.createObjectNode());
+    private void buildPartialObject(final int depth, final FieldQuery fields, final Class<?> clazz,
+                                    final Object instance, final PartialOutput output, final String name) {
+        if (depth > this.maximumDepth) {
+            output.startObject(name);
+            output.endObject();
+        } else if (ClassDescriptor.of(clazz).isAnnotated()) {
+            final RenderPlan renderPlan = this.getRenderPlan(clazz, fields);
+            if (output.isLazy()) {
+                output.writeLazyObject(name, new LazyObjectNode(this.nodeFactory, this, renderPlan, instance, depth));
+                return;
+            }
+            output.startObject(name, renderPlan.getStatistics().expectedFieldCount(renderPlan.getSteps().length));
+            if (output.getEntityTable() != null && output.getEntityTable().isEntity(depth) && instance != null) {
+                final Object identifier = this.readIdentifier(clazz, instance);
+                final String key = output.getEntityTable().reference(renderPlan, instance, identifier, depth);
+                output.writeValue(Partialize.REFERENCE_FIELD, ValueWriter.of(String.class), key);
+            } else {
+                this.executeRenderPlan(depth, renderPlan, instance, output);
+            }
+            output.endObject();
+        } else if (instance instanceof Map<?, ?>) {
+            output.startObject(name);
+            this.buildMap(depth, fields, clazz, (Map<?, ?>) instance, output);
+            output.endObject();
+        } else if (instance instanceof Collection<?>) {
+            output.startArray(name);
+            for (final Object o : (Collection<?>) instance) {
+                this.internalBuild(depth + 1, null, null, output, o);
+            }
+            output.endArray();
+        } else {
+            final RuntimeException runtimeException = new RuntimeException("Can't convert " + clazz.getCanonicalName());
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(runtimeException);
+            } else {
+                throw runtimeException;
+            }
+            output.startObject(name);
+            output.endObject();
+        }
     }
 
     /**
-     * Build a JSON object from data taken from the scanner and
-     * the given class type and instance.
+     * Render the requested entries of the given map.
      *
-     * @param depth         The current depth
-     * @param fields        The field names to requests
-     * @param clazz         The class of the object to render
-     * @param instance      The instance of the object to render
-     * @param partialObject The partial JSON document
-     * @return A JSON Object
-     * @since 16.01.18
+     * @param depth  The current depth
+     * @param fields The compiled field query
+     * @param clazz  The class of the map to render
+     * @param map    The map to render
+     * @param output The rendering destination
+     * @since 26.10.17
      */
-    private ContainerNode<?> buildPartialObject(final int depth, String fields, final Class<?> clazz,
-                                                final Object instance, final ObjectNode partialObject) {
-        if (depth <= this.maximumDepth) {
-            final ObjectType objectType;
-            if (clazz.isAnnotationPresent(com.zero_x_baadf00d.partialize.annotation.Partialize.class)) {
-                objectType = ObjectType.ANNOTATED;
-            } else if (instance instanceof Map<?, ?>) {
-                objectType = ObjectType.MAP;
-            } else if (instance instanceof Collection<?>) {
-                final ArrayNode partialArray = this.objectMapper.createArrayNode();
-                if (((Collection<?>) instance).size() > 0) {
-                    for (final Object o : (Collection<?>) instance) {
-                        this.internalBuild(depth + 1, null, null, partialArray, o);
-                    }
+    private void buildMap(final int depth, final FieldQuery fields, final Class<?> clazz,
+                          final Map<?, ?> map, final PartialOutput output) {
+        final FieldIndex fieldIndex = new FieldIndex(map.keySet());
+        final List<String> allowedFields = fieldIndex.getNames();
+        final List<FieldQuery.Field> requestedFields = fields == null ? Collections.emptyList() : fields.getFields();
+
+        final FieldMask closedMask = new FieldMask(allowedFields.size());
+        final FieldMask excludedMask = new FieldMask(allowedFields.size());
+        boolean hasIncludedField = false;
+        for (final FieldQuery.Field requestedField : requestedFields) {
+            if (requestedField.isExcluded()) {
+                final int fieldIdx = fieldIndex.indexOf(this.resolveField(requestedField.getName()));
+                if (fieldIdx >= 0) {
+                    excludedMask.set(fieldIdx);
                 }
-                return partialArray;
             } else {
-                objectType = ObjectType.NOT_SUPPORTED;
+                hasIncludedField = true;
             }
+        }
 
-            if (objectType != ObjectType.NOT_SUPPORTED) {
-                final List<String> closedFields = new ArrayList<>();
-
-                List<String> allowedFields;
-                List<String> defaultFields = null;
-                switch (objectType) {
-                    case ANNOTATED:
-                        allowedFields = Arrays.asList(
-                            clazz
-                                .getAnnotation(com.zero_x_baadf00d.partialize.annotation.Partialize.class)
-                                .allowedFields()
-                        );
-                        defaultFields = Arrays.asList(
-                            clazz
-                                .getAnnotation(com.zero_x_baadf00d.partialize.annotation.Partialize.class)
-                                .defaultFields()
-                        );
-
-                        if (allowedFields.isEmpty()) {
-                            allowedFields = new ArrayList<>();
-                            Class<?> clazzActual = clazz;
-                            do {
-                                for (final Method m : clazzActual.getDeclaredMethods()) {
-                                    final String methodName = m.getName();
-                                    for (final String methodPrefix : Partialize.METHOD_PREFIXES) {
-                                        if (methodName.startsWith(methodPrefix)) {
-                                            final char[] c = methodName.substring(methodPrefix.length()).toCharArray();
-                                            c[0] = Character.toLowerCase(c[0]);
-                                            allowedFields.add(new String(c));
-                                        }
-                                    }
-                                }
-                                clazzActual = clazzActual.getSuperclass();
-                            } while (clazzActual != Object.class);
-                        }
-
-                        break;
-                    case MAP:
-                        allowedFields = new ArrayList<>();
-                        for (Map.Entry<?, ?> e : ((Map<?, ?>) instance).entrySet()) {
-                            allowedFields.add(String.valueOf(e.getKey()));
-                        }
-                        break;
-                    default:
-                        throw new NotImplementedException("Can't convert " + clazz.getCanonicalName());
-                }
-
-                if (defaultFields == null || defaultFields.isEmpty()) {
-                    defaultFields = allowedFields.stream()
-                        .map(this::resolveAlias)
-                        .collect(Collectors.toList());
-                }
-                if (fields == null || fields.length() == 0) {
-                    fields = String.join(",", defaultFields);
+        final Map<String, FieldQuery.Field> plannedEntries = new LinkedHashMap<>();
+        if (!hasIncludedField) {
+            this.planMapEntries(clazz, map, FieldMask.all(allowedFields.size()).andNot(excludedMask), allowedFields, closedMask, plannedEntries);
+        }
+        for (final FieldQuery.Field requestedField : requestedFields) {
+            if (requestedField.isExcluded()) {
+                continue;
+            }
+            if (requestedField.isWildcard()) {
+                final FieldMask wildcardMask = FieldMask.all(allowedFields.size()).andNot(closedMask).andNot(excludedMask);
+                this.planMapEntries(clazz, map, wildcardMask, allowedFields, closedMask, plannedEntries);
+                continue;
+            }
+            final String aliasField = requestedField.getName();
+            final String field = this.resolveField(aliasField);
+            final int fieldIdx = fieldIndex.indexOf(field);
+            if (fieldIdx >= 0 && !excludedMask.get(fieldIdx)) {
+                if (!this.isAccessGranted(clazz, map, field)) {
+                    continue;
                 }
-                Scanner scanner = new Scanner(fields);
-                scanner.useDelimiter(com.zero_x_baadf00d.partialize.Partialize.SCANNER_DELIMITER);
-                while (scanner.hasNext()) {
-                    String word = scanner.next();
-                    String args = null;
-                    if (word.compareTo("*") == 0) {
-                        final StringBuilder sb = new StringBuilder();
-                        if (scanner.hasNext()) {
-                            scanner.useDelimiter("\n");
-                            sb.append(",");
-                            sb.append(scanner.next());
-                        }
-                        final Scanner newScanner = new Scanner(allowedFields.stream()
-                            .filter(f -> !closedFields.contains(f))
-                            .map(this::resolveAlias)
-                            .collect(Collectors.joining(",")) + sb);
-                        newScanner.useDelimiter(com.zero_x_baadf00d.partialize.Partialize.SCANNER_DELIMITER);
-                        scanner.close();
-                        scanner = newScanner;
-                    }
-                    if (word.contains("(")) {
-                        while (scanner.hasNext() && (StringUtils.countMatches(word, "(") != StringUtils.countMatches(word, ")"))) {
-                            word += "," + scanner.next();
-                        }
-                        final Matcher m = this.fieldArgsPattern.matcher(word);
-                        if (m.find()) {
-                            word = m.group(1);
-                            args = m.group(2);
-                        }
-                    }
-                    final String aliasField = word;
-                    final String field = this.aliases != null && this.aliases.containsKey(aliasField)
-                        ? this.aliases.get(aliasField)
-                        : aliasField;
-                    if (allowedFields.stream().anyMatch(f -> f.toLowerCase(Locale.ENGLISH).compareTo(field.toLowerCase(Locale.ENGLISH)) == 0)) {
-                        if (this.accessPolicyFunction != null && !this.accessPolicyFunction.apply(new AccessPolicy(clazz, instance, field))) {
-                            continue;
-                        }
-                        closedFields.add(aliasField);
-                        switch (objectType) {
-                            case ANNOTATED:
-                                for (final String methodPrefix : Partialize.METHOD_PREFIXES) {
-                                    try {
-                                        final Method method = clazz.getMethod(methodPrefix + WordUtils.capitalize(field));
-                                        final Object object = method.invoke(instance);
-                                        this.internalBuild(depth, aliasField, args, partialObject, object);
-                                        break;
-                                    } catch (final IllegalAccessException | InvocationTargetException
-                                                   | NoSuchMethodException | NullPointerException ignore) {
-                                        try {
-                                            final Method method = clazz.getMethod(field);
-                                            final Object object = method.invoke(instance);
-                                            this.internalBuild(depth, aliasField, args, partialObject, object);
-                                            break;
-                                        } catch (final IllegalAccessException | InvocationTargetException | NoSuchMethodException ex) {
-                                            if (this.exceptionConsumer != null) {
-                                                this.exceptionConsumer.accept(ex);
-                                            }
-                                        }
-                                    }
-                                }
-                                break;
-                            case MAP:
-                                final Map<?, ?> tmpMap = (Map<?, ?>) instance;
-                                if (tmpMap.containsKey(field)) {
-                                    final Object object = tmpMap.get(field);
-                                    this.internalBuild(depth, aliasField, args, partialObject, object);
-                                }
-                                break;
-                            default:
-                                break;
-                        }
-                    }
+                closedMask.set(fieldIdx);
+                if (map.containsKey(field)) {
+                    plannedEntries.put(aliasField, new FieldQuery.Field(field, requestedField.getArgs()));
                 }
-            } else {
-                final RuntimeException runtimeException = new RuntimeException("Can't convert " + clazz.getCanonicalName());
+            }
+        }
+
+        for (final Map.Entry<String, FieldQuery.Field> plannedEntry : plannedEntries.entrySet()) {
+            final FieldQuery.Field field = plannedEntry.getValue();
+            this.internalBuild(depth, plannedEntry.getKey(), field.getArgs(), output, map.get(field.getName()));
+        }
+    }
+
+    /**
+     * Get the render plan of the given class and compiled field query.
+     *
+     * @param clazz  The class of the object to render
+     * @param fields The compiled field query
+     * @return The render plan
+     * @since 26.10.17
+     */
+    private RenderPlan getRenderPlan(final Class<?> clazz, final FieldQuery fields) {
+        return RenderPlan.of(clazz, fields == null ? FieldQuery.EMPTY : fields, this.aliases, this.aliasesHash);
+    }
+
+    /**
+     * Plan the rendering of all entries of the given mask, in map
+     * order, under their alias if any.
+     *
+     * @param clazz          The class of the map to render
+     * @param map            The map to render
+     * @param fieldMask      The entries to plan
+     * @param allowedFields  The map keys
+     * @param closedMask     The already planned entries, updated by this method
+     * @param plannedEntries The planned entries, indexed by output name
+     * @since 26.10.17
+     */
+    private void planMapEntries(final Class<?> clazz, final Map<?, ?> map, final FieldMask fieldMask, final List<String> allowedFields,
+                                final FieldMask closedMask, final Map<String, FieldQuery.Field> plannedEntries) {
+        for (int fieldIdx = fieldMask.nextSetBit(0); fieldIdx >= 0; fieldIdx = fieldMask.nextSetBit(fieldIdx + 1)) {
+            final String field = allowedFields.get(fieldIdx);
+            if (!this.isAccessGranted(clazz, map, field)) {
+                continue;
+            }
+            closedMask.set(fieldIdx);
+            if (map.containsKey(field)) {
+                plannedEntries.put(this.resolveAlias(field), new FieldQuery.Field(field, null));
+            }
+        }
+    }
+
+    /**
+     * Render the given instance by executing the render plan.
+     *
+     * @param depth      The current depth
+     * @param renderPlan The render plan
+     * @param instance   The instance of the object to render
+     * @param output     The rendering destination
+     * @since 26.10.17
+     */
+    private void executeRenderPlan(final int depth, final RenderPlan renderPlan,
+                                   final Object instance, final PartialOutput output) {
+        int fieldCount = 0;
+        for (final RenderPlan.Step step : renderPlan.getSteps()) {
+            if (this.executeStep(depth, renderPlan, step, instance, output)) {
+                fieldCount += 1;
+            }
+        }
+        renderPlan.getStatistics().recordObject(fieldCount);
+    }
+
+    /**
+     * Execute a single step of a render plan in the current object.
+     *
+     * @param depth      The current depth
+     * @param renderPlan The render plan
+     * @param step       The step to execute
+     * @param instance   The instance of the object to render
+     * @param output     The rendering destination
+     * @return {@code true} if the field has been read
+     * @since 26.10.17
+     */
+    private boolean executeStep(final int depth, final RenderPlan renderPlan, final RenderPlan.Step step,
+                                final Object instance, final PartialOutput output) {
+        if (!this.isAccessGranted(renderPlan.getRenderedClass(), instance, step.field)) {
+            return false;
+        }
+        if (step.getter == null) {
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(step.failure);
+            }
+        } else if (instance != null || step.getter.isStatic()) {
+            try {
+                this.internalBuild(depth, step.outputName, step.args, output, step.getter.get(instance));
+                return true;
+            } catch (final InvocationTargetException ex) {
                 if (this.exceptionConsumer != null) {
-                    this.exceptionConsumer.accept(runtimeException);
-                } else {
-                    throw runtimeException;
+                    this.exceptionConsumer.accept(ex);
                 }
             }
         }
-        return partialObject;
+        return false;
+    }
+
+    /**
+     * Render a single step of a render plan into the given object, on
+     * behalf of a lazy view. Annotated objects met while rendering the
+     * step are written as lazy views too.
+     *
+     * @param depth      The depth of the object
+     * @param renderPlan The render plan
+     * @param step       The step to render
+     * @param instance   The instance of the object to render
+     * @param target     The object receiving the rendered fields
+     * @since 26.10.17
+     */
+    void renderStep(final int depth, final RenderPlan renderPlan, final RenderPlan.Step step,
+                    final Object instance, final ObjectNode target) {
+        final TreePartialOutput output = new TreePartialOutput(this.nodeFactory, target, true);
+        output.startObject(null);
+        this.executeStep(depth, renderPlan, step, instance, output);
+        output.endObject();
+    }
+
+    /**
+     * Read the identifier field of the given entity. The access policy is
+     * applied as for any rendered field, errors are reported to the
+     * exception callback.
+     *
+     * @param clazz    The class of the entity
+     * @param instance The entity
+     * @return The identifier, otherwise, {@code null} if the entity must be identified by reference
+     * @since 26.10.17
+     */
+    private Object readIdentifier(final Class<?> clazz, final Object instance) {
+        final ClassDescriptor classDescriptor = ClassDescriptor.of(clazz);
+        final int identifierIndex = classDescriptor.getIdentifierIndex();
+        if (identifierIndex < 0 || classDescriptor.getGetter(identifierIndex) == null
+            || !this.isAccessGranted(clazz, instance, classDescriptor.getAllowedFields().get(identifierIndex))) {
+            return null;
+        }
+        try {
+            return classDescriptor.getGetter(identifierIndex).get(instance);
+        } catch (final InvocationTargetException ex) {
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(ex);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Check if the access policy grants access to the given field.
+     *
+     * @param clazz    The class of the object to render
+     * @param instance The instance of the object to render
+     * @param field    The field that will be accessed
+     * @return {@code true} if the field can be rendered
+     * @since 26.10.17
+     */
+    private boolean isAccessGranted(final Class<?> clazz, final Object instance, final String field) {
+        return this.accessPolicyFunction == null || this.accessPolicyFunction.apply(new AccessPolicy(clazz, instance, field));
+    }
+
+    /**
+     * Prepare a generator created by this instance. The target is not
+     * closed with the generator, and opened containers are not closed
+     * either, so that a render failing halfway leaves a truncated
+     * document instead of a well-formed one.
+     *
+     * @param generator The generator
+     * @return The given generator
+     * @since 26.10.17
+     */
+    private static JsonGenerator prepareGenerator(final JsonGenerator generator) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        return generator;
+    }
+
+    /**
+     * Create a generator writing to the given stream with the configured
+     * output format. The stream is not closed with the generator.
+     *
+     * @param outputStream The stream to write to
+     * @return The generator
+     * @throws IOException If the generator can't be created
+     * @since 26.10.17
+     */
+    private JsonGenerator createGenerator(final OutputStream outputStream) throws IOException {
+        final JsonFactory jsonFactory = this.outputFormat == OutputFormat.JSON
+            ? this.objectMapper.getFactory()
+            : BinaryFactories.of(this.outputFormat);
+        return Partialize.prepareGenerator(jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8));
+    }
+
+    /**
+     * Compile the given field query. Malformed queries are reported
+     * to the exception callback if defined, otherwise, thrown.
+     *
+     * @param fields The field query to compile
+     * @return The compiled query, or {@code null} if the query is malformed
+     * @since 26.10.17
+     */
+    private FieldQuery compileQuery(final String fields) {
+        try {
+            return FieldQuery.compile(fields);
+        } catch (final FieldQueryException ex) {
+            if (this.exceptionConsumer != null) {
+                this.exceptionConsumer.accept(ex);
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Resolves the real field name from an alias.
+     *
+     * @param aliasField The alias or field name
+     * @return The real field name
+     * @since 26.10.17
+     */
+    private String resolveField(final String aliasField) {
+        return this.aliases != null && this.aliases.containsKey(aliasField)
+            ? this.aliases.get(aliasField)
+            : aliasField;
     }
 
     /**
@@ -563,8 +1650,20 @@ public class Partialize {
      * @since 19.01.30
      */
     private String resolveAlias(final String fieldName) {
-        if (this.aliases != null && this.aliases.containsValue(fieldName)) {
-            for (final Map.Entry<String, String> e : this.aliases.entrySet()) {
+        return Partialize.resolveAlias(this.aliases, fieldName);
+    }
+
+    /**
+     * Resolves alias from a real field name.
+     *
+     * @param aliases   The defined aliases, can be {@code null}
+     * @param fieldName The field name to retrieve alias
+     * @return The alias in case of success, otherwise, the field name
+     * @since 26.10.17
+     */
+    static String resolveAlias(final Map<String, String> aliases, final String fieldName) {
+        if (aliases != null && aliases.containsValue(fieldName)) {
+            for (final Map.Entry<String, String> e : aliases.entrySet()) {
                 if (e.getValue().compareToIgnoreCase(fieldName) == 0) {
                     return e.getKey();
                 }
@@ -33,7 +33,7 @@ import java.util.Map;
  * This manager handles all registered converters.
  *
  * @author Thibault Meyer
- * @version 20.12.14
+ * @version 26.10.17
  * @since 16.03.22
  */
 public final class PartializeConverterManager {
@@ -72,6 +72,7 @@ public final class PartializeConverterManager {
      */
     public void registerConverter(final Converter<?> converter) {
         this.registeredConverters.putIfAbsent(converter.getManagedObjectClass(), converter);
+        ValueWriter.invalidate();
     }
 
     /**
@@ -84,6 +85,7 @@ public final class PartializeConverterManager {
         for (final Converter<?> converter : converters) {
             this.registeredConverters.putIfAbsent(converter.getManagedObjectClass(), converter);
         }
+        ValueWriter.invalidate();
     }
 
     /**
@@ -96,6 +98,7 @@ public final class PartializeConverterManager {
         for (final Converter<?> converter : converters) {
             this.registeredConverters.putIfAbsent(converter.getManagedObjectClass(), converter);
         }
+        ValueWriter.invalidate();
     }
 
     /**
@@ -105,6 +108,7 @@ public final class PartializeConverterManager {
      */
     public void removeAllConverters() {
         this.registeredConverters.clear();
+        ValueWriter.invalidate();
     }
 
     /**
@@ -0,0 +1,329 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pre-serialized JSON value. Getters returning a {@code RawJson} have
+ * their value embedded verbatim in JSON documents, without being parsed.
+ * The value is only parsed, as a stream of tokens, when a sub-query has
+ * to be applied on it, or when it is written to a binary format.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class RawJson {
+
+    /**
+     * The JSON text, {@code null} if the value is held as bytes.
+     *
+     * @since 26.10.17
+     */
+    private final String text;
+
+    /**
+     * The UTF-8 encoded JSON text, {@code null} if the value is held as a string.
+     *
+     * @since 26.10.17
+     */
+    private final byte[] bytes;
+
+    /**
+     * Offset of the value in the bytes.
+     *
+     * @since 26.10.17
+     */
+    private final int offset;
+
+    /**
+     * Length of the value in the bytes.
+     *
+     * @since 26.10.17
+     */
+    private final int length;
+
+    /**
+     * Build a new instance.
+     *
+     * @param text   The JSON text
+     * @param bytes  The UTF-8 encoded JSON text
+     * @param offset Offset of the value in the bytes
+     * @param length Length of the value in the bytes
+     * @since 26.10.17
+     */
+    private RawJson(final String text, final byte[] bytes, final int offset, final int length) {
+        this.text = text;
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Wrap the given JSON text.
+     *
+     * @param json The JSON text
+     * @return The raw JSON value
+     * @since 26.10.17
+     */
+    public static RawJson of(final String json) {
+        return new RawJson(json, null, 0, json.length());
+    }
+
+    /**
+     * Wrap the given UTF-8 encoded JSON text. The array is not copied
+     * and must not be modified afterwards.
+     *
+     * @param json The UTF-8 encoded JSON text
+     * @return The raw JSON value
+     * @since 26.10.17
+     */
+    public static RawJson of(final byte[] json) {
+        return new RawJson(null, json, 0, json.length);
+    }
+
+    /**
+     * Wrap the remaining bytes of the given buffer, holding UTF-8 encoded
+     * JSON text. The bytes of heap buffers are not copied and must not be
+     * modified afterwards. The position of the buffer is not changed.
+     *
+     * @param json The UTF-8 encoded JSON text
+     * @return The raw JSON value
+     * @since 26.10.17
+     */
+    public static RawJson of(final ByteBuffer json) {
+        if (json.hasArray()) {
+            return new RawJson(null, json.array(), json.arrayOffset() + json.position(), json.remaining());
+        }
+        final byte[] copy = new byte[json.remaining()];
+        json.duplicate().get(copy);
+        return new RawJson(null, copy, 0, copy.length);
+    }
+
+    /**
+     * Get the value as a serializable string, written verbatim by
+     * {@code JsonGenerator.writeRawValue}.
+     *
+     * @return The value as a serializable string
+     * @since 26.10.17
+     */
+    SerializableString asSerializableString() {
+        return new RawJsonString(this);
+    }
+
+    /**
+     * Create a parser reading the value.
+     *
+     * @param jsonFactory The factory to use
+     * @return A new parser
+     * @throws IOException If the parser can't be created
+     * @since 26.10.17
+     */
+    JsonParser createParser(final JsonFactory jsonFactory) throws IOException {
+        return this.text != null
+            ? jsonFactory.createParser(this.text)
+            : jsonFactory.createParser(this.bytes, this.offset, this.length);
+    }
+
+    /**
+     * Get the value encoded as UTF-8.
+     *
+     * @return A new array holding the encoded value
+     * @since 26.10.17
+     */
+    private byte[] toBytes() {
+        return this.text != null
+            ? this.text.getBytes(StandardCharsets.UTF_8)
+            : Arrays.copyOfRange(this.bytes, this.offset, this.offset + this.length);
+    }
+
+    @Override
+    public String toString() {
+        return this.text != null
+            ? this.text
+            : new String(this.bytes, this.offset, this.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializable string view of a raw JSON value. Only the unquoted
+     * forms are used to write raw values; bytes are copied as they are
+     * when the generator writes UTF-8.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class RawJsonString implements SerializableString {
+
+        /**
+         * The raw JSON value.
+         *
+         * @since 26.10.17
+         */
+        private final RawJson rawJson;
+
+        /**
+         * Build a new instance.
+         *
+         * @param rawJson The raw JSON value
+         * @since 26.10.17
+         */
+        RawJsonString(final RawJson rawJson) {
+            this.rawJson = rawJson;
+        }
+
+        @Override
+        public String getValue() {
+            return this.rawJson.toString();
+        }
+
+        @Override
+        public int charLength() {
+            return this.getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return JsonStringEncoder.getInstance().quoteAsString(this.getValue());
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return this.rawJson.toBytes();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return JsonStringEncoder.getInstance().quoteAsUTF8(this.getValue());
+        }
+
+        @Override
+        public int appendQuotedUTF8(final byte[] buffer, final int offset) {
+            return RawJsonString.append(this.asQuotedUTF8(), buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(final char[] buffer, final int offset) {
+            final char[] quoted = this.asQuotedChars();
+            if (offset + quoted.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(quoted, 0, buffer, offset, quoted.length);
+            return quoted.length;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(final byte[] buffer, final int offset) {
+            if (this.rawJson.bytes == null) {
+                return RawJsonString.append(this.asUnquotedUTF8(), buffer, offset);
+            }
+            if (offset + this.rawJson.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(this.rawJson.bytes, this.rawJson.offset, buffer, offset, this.rawJson.length);
+            return this.rawJson.length;
+        }
+
+        @Override
+        public int appendUnquoted(final char[] buffer, final int offset) {
+            final String value = this.getValue();
+            if (offset + value.length() > buffer.length) {
+                return -1;
+            }
+            value.getChars(0, value.length(), buffer, offset);
+            return value.length();
+        }
+
+        @Override
+        public int writeQuotedUTF8(final OutputStream outputStream) throws IOException {
+            final byte[] quoted = this.asQuotedUTF8();
+            outputStream.write(quoted);
+            return quoted.length;
+        }
+
+        @Override
+        public int writeUnquotedUTF8(final OutputStream outputStream) throws IOException {
+            if (this.rawJson.bytes == null) {
+                final byte[] unquoted = this.asUnquotedUTF8();
+                outputStream.write(unquoted);
+                return unquoted.length;
+            }
+            outputStream.write(this.rawJson.bytes, this.rawJson.offset, this.rawJson.length);
+            return this.rawJson.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(final ByteBuffer buffer) {
+            return RawJsonString.put(this.asQuotedUTF8(), buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(final ByteBuffer buffer) {
+            return RawJsonString.put(this.asUnquotedUTF8(), buffer);
+        }
+
+        /**
+         * Copy the given bytes to the given buffer.
+         *
+         * @param source The bytes to copy
+         * @param buffer The buffer to copy to
+         * @param offset The offset in the buffer
+         * @return The number of copied bytes, {@code -1} if the buffer is too small
+         * @since 26.10.17
+         */
+        private static int append(final byte[] source, final byte[] buffer, final int offset) {
+            if (offset + source.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(source, 0, buffer, offset, source.length);
+            return source.length;
+        }
+
+        /**
+         * Put the given bytes in the given buffer.
+         *
+         * @param source The bytes to put
+         * @param buffer The buffer to put to
+         * @return The number of bytes put, {@code -1} if the buffer is too small
+         * @since 26.10.17
+         */
+        private static int put(final byte[] source, final ByteBuffer buffer) {
+            if (source.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(source);
+            return source.length;
+        }
+    }
+}
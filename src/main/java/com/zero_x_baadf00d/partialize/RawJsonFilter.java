@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * Streaming filter applying a field query on the properties of raw JSON
+ * values. Arrays are traversed and the query is applied on each item.
+ * Property names are compared case-insensitively, like field names.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class RawJsonFilter extends TokenFilter {
+
+    /**
+     * The field query to apply.
+     *
+     * @since 26.10.17
+     */
+    private final FieldQuery fieldQuery;
+
+    /**
+     * Are properties not explicitly requested included.
+     *
+     * @since 26.10.17
+     */
+    private final boolean includeOthers;
+
+    /**
+     * Build a new instance.
+     *
+     * @param fieldQuery The field query to apply
+     * @since 26.10.17
+     */
+    RawJsonFilter(final FieldQuery fieldQuery) {
+        boolean hasIncludedField = false;
+        boolean hasWildcard = false;
+        for (final FieldQuery.Field field : fieldQuery.getFields()) {
+            hasIncludedField |= !field.isExcluded();
+            hasWildcard |= field.isWildcard();
+        }
+        this.fieldQuery = fieldQuery;
+        this.includeOthers = hasWildcard || !hasIncludedField;
+    }
+
+    @Override
+    public TokenFilter includeProperty(final String name) {
+        for (final FieldQuery.Field field : this.fieldQuery.getFields()) {
+            if (!field.isWildcard() && field.getName().equalsIgnoreCase(name)) {
+                if (field.isExcluded()) {
+                    return null;
+                }
+                return field.getArgs() == null || field.getArgs().isEmpty()
+                    ? TokenFilter.INCLUDE_ALL
+                    : new RawJsonFilter(field.getArgs());
+            }
+        }
+        return this.includeOthers ? TokenFilter.INCLUDE_ALL : null;
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rendering plan specialized for a class and a compiled field query.
+ * Wildcards, exclusions, aliases and default fields are resolved once,
+ * with field masks, when the plan is built. Rendering an instance is
+ * then a straight walk over the resulting steps. Plans are shared by
+ * all {@link Partialize} instances using the same aliases.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class RenderPlan {
+
+    /**
+     * Maximum number of render plans kept in cache for a single class.
+     *
+     * @since 26.10.17
+     */
+    private static final int MAXIMUM_RENDER_PLANS_PER_CLASS = 256;
+
+    /**
+     * Render plans of each class, indexed by compiled field query and aliases.
+     *
+     * @since 26.10.17
+     */
+    private static final ClassValue<Map<PlanKey, RenderPlan>> PLANS = new ClassValue<>() {
+
+        @Override
+        protected Map<PlanKey, RenderPlan> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * The class rendered by this plan.
+     *
+     * @since 26.10.17
+     */
+    private final Class<?> clazz;
+
+    /**
+     * Steps to execute, in output order.
+     *
+     * @since 26.10.17
+     */
+    private final Step[] steps;
+
+    /**
+     * Index of each step, by output name.
+     *
+     * @since 26.10.17
+     */
+    private final Map<String, Integer> stepIndexes;
+
+    /**
+     * Running statistics of the renders of this class and query.
+     *
+     * @since 26.10.17
+     */
+    private final RenderStatistics statistics;
+
+    /**
+     * Build a new instance.
+     *
+     * @param clazz      The class rendered by this plan
+     * @param fieldQuery The compiled field query
+     * @param aliases    The defined aliases, can be {@code null}
+     * @since 26.10.17
+     */
+    private RenderPlan(final Class<?> clazz, final FieldQuery fieldQuery, final Map<String, String> aliases) {
+        final ClassDescriptor classDescriptor = ClassDescriptor.of(clazz);
+        final List<String> allowedFields = classDescriptor.getAllowedFields();
+        final List<FieldQuery.Field> requestedFields = fieldQuery == null
+            ? Collections.emptyList()
+            : fieldQuery.getFields();
+        this.clazz = clazz;
+        this.statistics = RenderStatistics.of(clazz, fieldQuery == null ? FieldQuery.EMPTY : fieldQuery);
+
+        final FieldMask closedMask = new FieldMask(allowedFields.size());
+        final FieldMask excludedMask = new FieldMask(allowedFields.size());
+        boolean hasIncludedField = false;
+        for (final FieldQuery.Field requestedField : requestedFields) {
+            if (requestedField.isExcluded()) {
+                final int fieldIdx = classDescriptor.indexOf(RenderPlan.resolveField(aliases, requestedField.getName()));
+                if (fieldIdx >= 0) {
+                    excludedMask.set(fieldIdx);
+                }
+            } else {
+                hasIncludedField = true;
+            }
+        }
+
+        final Map<String, Step> plannedSteps = new LinkedHashMap<>();
+        if (!hasIncludedField) {
+            RenderPlan.planFields(classDescriptor, aliases, classDescriptor.getDefaultMask().andNot(excludedMask), closedMask, plannedSteps);
+        }
+        for (final FieldQuery.Field requestedField : requestedFields) {
+            if (requestedField.isExcluded()) {
+                continue;
+            }
+            if (requestedField.isWildcard()) {
+                final FieldMask wildcardMask = FieldMask.all(allowedFields.size()).andNot(closedMask).andNot(excludedMask);
+                RenderPlan.planFields(classDescriptor, aliases, wildcardMask, closedMask, plannedSteps);
+                continue;
+            }
+
+            final String aliasField = requestedField.getName();
+            final String field = RenderPlan.resolveField(aliases, aliasField);
+            final int fieldIdx = classDescriptor.indexOf(field);
+            if (fieldIdx >= 0 && !excludedMask.get(fieldIdx)) {
+                closedMask.set(fieldIdx);
+                plannedSteps.put(aliasField, new Step(
+                    aliasField,
+                    field,
+                    requestedField.getArgs(),
+                    classDescriptor.getGetter(fieldIdx),
+                    classDescriptor.getFailure(fieldIdx)
+                ));
+            }
+        }
+        this.steps = plannedSteps.values().toArray(new Step[0]);
+        this.stepIndexes = new HashMap<>();
+        for (int stepIdx = 0; stepIdx < this.steps.length; ++stepIdx) {
+            this.stepIndexes.put(this.steps[stepIdx].outputName, stepIdx);
+        }
+    }
+
+    /**
+     * Get the render plan of the given class, compiled field query and
+     * aliases. The plan is built on first use.
+     *
+     * @param clazz       The class to render
+     * @param fieldQuery  The compiled field query
+     * @param aliases     The defined aliases, can be {@code null}
+     * @param aliasesHash The hash code of the aliases, {@code 0} if there is no alias
+     * @return The render plan
+     * @since 26.10.17
+     */
+    static RenderPlan of(final Class<?> clazz, final FieldQuery fieldQuery, final Map<String, String> aliases, final int aliasesHash) {
+        final Map<PlanKey, RenderPlan> classRenderPlans = RenderPlan.PLANS.get(clazz);
+        final PlanKey planKey = new PlanKey(fieldQuery, aliases, aliasesHash);
+        RenderPlan renderPlan = classRenderPlans.get(planKey);
+        if (renderPlan == null) {
+            if (classRenderPlans.size() >= RenderPlan.MAXIMUM_RENDER_PLANS_PER_CLASS) {
+                classRenderPlans.clear();
+            }
+            renderPlan = classRenderPlans.computeIfAbsent(planKey, k -> new RenderPlan(clazz, fieldQuery, aliases));
+        }
+        return renderPlan;
+    }
+
+    /**
+     * Resolve the real field name of the given alias.
+     *
+     * @param aliases    The defined aliases, can be {@code null}
+     * @param aliasField The alias or field name
+     * @return The real field name
+     * @since 26.10.17
+     */
+    private static String resolveField(final Map<String, String> aliases, final String aliasField) {
+        return aliases != null && aliases.containsKey(aliasField)
+            ? aliases.get(aliasField)
+            : aliasField;
+    }
+
+    /**
+     * Plan the rendering of all fields of the given mask, in declaration
+     * order, under their alias if any.
+     *
+     * @param classDescriptor The class descriptor
+     * @param aliases         The defined aliases, can be {@code null}
+     * @param fieldMask       The fields to plan
+     * @param closedMask      The already planned fields, updated by this method
+     * @param plannedSteps    The planned steps, indexed by output name
+     * @since 26.10.17
+     */
+    private static void planFields(final ClassDescriptor classDescriptor, final Map<String, String> aliases,
+                                   final FieldMask fieldMask, final FieldMask closedMask,
+                                   final Map<String, Step> plannedSteps) {
+        for (int fieldIdx = fieldMask.nextSetBit(0); fieldIdx >= 0; fieldIdx = fieldMask.nextSetBit(fieldIdx + 1)) {
+            final String field = classDescriptor.getAllowedFields().get(fieldIdx);
+            final String aliasField = Partialize.resolveAlias(aliases, field);
+            closedMask.set(fieldIdx);
+            plannedSteps.put(aliasField, new Step(
+                aliasField,
+                field,
+                null,
+                classDescriptor.getGetter(fieldIdx),
+                classDescriptor.getFailure(fieldIdx)
+            ));
+        }
+    }
+
+    /**
+     * Get the class rendered by this plan.
+     *
+     * @return The class
+     * @since 26.10.17
+     */
+    Class<?> getRenderedClass() {
+        return this.clazz;
+    }
+
+    /**
+     * Get the steps to execute, in output order.
+     *
+     * @return The steps
+     * @since 26.10.17
+     */
+    Step[] getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Get the index of the step writing the given output name.
+     *
+     * @param outputName The name of the field in the output document
+     * @return The index of the step, otherwise, {@code -1}
+     * @since 26.10.17
+     */
+    int indexOf(final String outputName) {
+        final Integer stepIdx = this.stepIndexes.get(outputName);
+        return stepIdx == null ? -1 : stepIdx;
+    }
+
+    /**
+     * Check if a step may write fields under other names than its output
+     * name. Only converters do, so only steps whose declared value class
+     * resolves to a converter, or is too broad to tell, are considered.
+     *
+     * @return {@code true} if a step may write fields under other names
+     * @since 26.10.17
+     */
+    boolean mayRenameFields() {
+        for (final Step step : this.steps) {
+            if (step.getter != null && step.failure == null) {
+                final Class<?> valueClass = step.getter.getValueClass();
+                if (valueClass == Object.class || valueClass == Optional.class
+                    || ValueWriter.of(valueClass).getKind() == ValueWriter.Kind.CONVERTER) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the running statistics of the renders of this class and query.
+     *
+     * @return The statistics
+     * @since 26.10.17
+     */
+    RenderStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * A single field to render.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    static final class Step {
+
+        /**
+         * The name of the field in the output document.
+         *
+         * @since 26.10.17
+         */
+        final String outputName;
+
+        /**
+         * The real field name.
+         *
+         * @since 26.10.17
+         */
+        final String field;
+
+        /**
+         * The sub-query to apply on the field value.
+         *
+         * @since 26.10.17
+         */
+        final FieldQuery args;
+
+        /**
+         * The field getter, {@code null} if it can't be resolved.
+         *
+         * @since 26.10.17
+         */
+        final Accessor getter;
+
+        /**
+         * Reason why the getter can't be resolved.
+         *
+         * @since 26.10.17
+         */
+        final Exception failure;
+
+        /**
+         * Build a new instance.
+         *
+         * @param outputName The name of the field in the output document
+         * @param field      The real field name
+         * @param args       The sub-query to apply on the field value
+         * @param getter     The field getter
+         * @param failure    Reason why the getter can't be resolved
+         * @since 26.10.17
+         */
+        Step(final String outputName, final String field, final FieldQuery args,
+             final Accessor getter, final Exception failure) {
+            this.outputName = outputName;
+            this.field = field;
+            this.args = args;
+            this.getter = getter;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Key of a cached render plan.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class PlanKey {
+
+        /**
+         * The compiled field query.
+         *
+         * @since 26.10.17
+         */
+        private final FieldQuery fieldQuery;
+
+        /**
+         * The defined aliases, can be {@code null}.
+         *
+         * @since 26.10.17
+         */
+        private final Map<String, String> aliases;
+
+        /**
+         * The hash code of the key.
+         *
+         * @since 26.10.17
+         */
+        private final int hash;
+
+        /**
+         * Build a new instance.
+         *
+         * @param fieldQuery  The compiled field query
+         * @param aliases     The defined aliases, can be {@code null}
+         * @param aliasesHash The hash code of the aliases
+         * @since 26.10.17
+         */
+        PlanKey(final FieldQuery fieldQuery, final Map<String, String> aliases, final int aliasesHash) {
+            this.fieldQuery = fieldQuery;
+            this.aliases = aliases;
+            this.hash = 31 * fieldQuery.hashCode() + aliasesHash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            final PlanKey planKey = (PlanKey) o;
+            return this.hash == planKey.hash
+                && this.fieldQuery.equals(planKey.fieldQuery)
+                && (this.aliases == planKey.aliases || Objects.equals(this.aliases, planKey.aliases));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running statistics of the renders of a class with a compiled field
+ * query. They are shared by all {@link Partialize} instances, updated
+ * by each render without locking, and used to pre-size the containers
+ * and buffers of the next renders. Averages are exponentially weighted,
+ * so the estimates follow the recent renders.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class RenderStatistics {
+
+    /**
+     * Maximum number of field queries tracked per class.
+     *
+     * @since 26.10.17
+     */
+    private static final int MAXIMUM_STATISTICS_PER_CLASS = 256;
+
+    /**
+     * Weight of a new sample in the moving averages.
+     *
+     * @since 26.10.17
+     */
+    private static final double SAMPLE_WEIGHT = 0.125;
+
+    /**
+     * Statistics of each class, indexed by compiled field query.
+     *
+     * @since 26.10.17
+     */
+    private static final ClassValue<Map<FieldQuery, RenderStatistics>> STATISTICS = new ClassValue<>() {
+
+        @Override
+        protected Map<FieldQuery, RenderStatistics> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Number of objects rendered.
+     *
+     * @since 26.10.17
+     */
+    private final LongAdder objectCount;
+
+    /**
+     * Moving average of the number of fields of the rendered objects.
+     *
+     * @since 26.10.17
+     */
+    private final MovingAverage fieldCount;
+
+    /**
+     * Number of rendered collections.
+     *
+     * @since 26.10.17
+     */
+    private final LongAdder collectionCount;
+
+    /**
+     * Moving average of the number of elements of the rendered collections.
+     *
+     * @since 26.10.17
+     */
+    private final MovingAverage elementCount;
+
+    /**
+     * Number of encoded outputs.
+     *
+     * @since 26.10.17
+     */
+    private final LongAdder outputCount;
+
+    /**
+     * Moving average of the size of the encoded outputs, in bytes.
+     *
+     * @since 26.10.17
+     */
+    private final MovingAverage outputBytes;
+
+    /**
+     * Build a new instance.
+     *
+     * @since 26.10.17
+     */
+    private RenderStatistics() {
+        this.objectCount = new LongAdder();
+        this.fieldCount = new MovingAverage();
+        this.collectionCount = new LongAdder();
+        this.elementCount = new MovingAverage();
+        this.outputCount = new LongAdder();
+        this.outputBytes = new MovingAverage();
+    }
+
+    /**
+     * Get the statistics of the given class rendered with the given
+     * compiled field query.
+     *
+     * @param clazz      The rendered class
+     * @param fieldQuery The compiled field query
+     * @return The statistics
+     * @since 26.10.17
+     */
+    static RenderStatistics of(final Class<?> clazz, final FieldQuery fieldQuery) {
+        final Map<FieldQuery, RenderStatistics> classStatistics = RenderStatistics.STATISTICS.get(clazz);
+        RenderStatistics statistics = classStatistics.get(fieldQuery);
+        if (statistics == null) {
+            if (classStatistics.size() >= RenderStatistics.MAXIMUM_STATISTICS_PER_CLASS) {
+                classStatistics.clear();
+            }
+            statistics = classStatistics.computeIfAbsent(fieldQuery, k -> new RenderStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Get the number of objects rendered.
+     *
+     * @return The number of objects
+     * @since 26.10.17
+     */
+    public long getObjectCount() {
+        return this.objectCount.sum();
+    }
+
+    /**
+     * Get the moving average of the number of fields of a rendered object.
+     *
+     * @return The average number of fields, {@code 0} if no object has been rendered
+     * @since 26.10.17
+     */
+    public double getAverageFieldCount() {
+        return this.fieldCount.get();
+    }
+
+    /**
+     * Get the number of top-level collections rendered.
+     *
+     * @return The number of collections
+     * @since 26.10.17
+     */
+    public long getCollectionCount() {
+        return this.collectionCount.sum();
+    }
+
+    /**
+     * Get the moving average of the number of elements of a top-level collection.
+     *
+     * @return The average number of elements, {@code 0} if no collection has been rendered
+     * @since 26.10.17
+     */
+    public double getAverageElementCount() {
+        return this.elementCount.get();
+    }
+
+    /**
+     * Get the number of encoded results built.
+     *
+     * @return The number of encoded results
+     * @since 26.10.17
+     */
+    public long getOutputCount() {
+        return this.outputCount.sum();
+    }
+
+    /**
+     * Get the moving average of the size of an encoded result.
+     *
+     * @return The average size, in bytes, {@code 0} if no result has been built
+     * @since 26.10.17
+     */
+    public double getAverageOutputBytes() {
+        return this.outputBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "RenderStatistics{objects=%d, averageFields=%.1f, collections=%d, averageElements=%.1f, outputs=%d, averageOutputBytes=%.1f}",
+            this.getObjectCount(), this.getAverageFieldCount(),
+            this.getCollectionCount(), this.getAverageElementCount(),
+            this.getOutputCount(), this.getAverageOutputBytes()
+        );
+    }
+
+    /**
+     * Record a rendered object.
+     *
+     * @param fields The number of fields of the object
+     * @since 26.10.17
+     */
+    void recordObject(final int fields) {
+        this.objectCount.increment();
+        this.fieldCount.add(fields);
+    }
+
+    /**
+     * Record a rendered top-level collection.
+     *
+     * @param elements The number of elements of the collection
+     * @since 26.10.17
+     */
+    void recordCollection(final int elements) {
+        this.collectionCount.increment();
+        this.elementCount.add(elements);
+    }
+
+    /**
+     * Record an encoded result.
+     *
+     * @param bytes The size of the result, in bytes
+     * @since 26.10.17
+     */
+    void recordOutput(final long bytes) {
+        this.outputCount.increment();
+        this.outputBytes.add(bytes);
+    }
+
+    /**
+     * Get the expected number of fields of the next rendered object.
+     *
+     * @param fallback The value to use if no object has been rendered
+     * @return The expected number of fields
+     * @since 26.10.17
+     */
+    int expectedFieldCount(final int fallback) {
+        return this.fieldCount.expected(fallback);
+    }
+
+    /**
+     * Get the expected number of elements of the next top-level collection.
+     *
+     * @param fallback The value to use if no collection has been rendered
+     * @return The expected number of elements
+     * @since 26.10.17
+     */
+    int expectedElementCount(final int fallback) {
+        return this.elementCount.expected(fallback);
+    }
+
+    /**
+     * Get the expected size of the next encoded result.
+     *
+     * @param fallback The value to use if no result has been built
+     * @return The expected size, in bytes
+     * @since 26.10.17
+     */
+    int expectedOutputBytes(final int fallback) {
+        return this.outputBytes.expected(fallback);
+    }
+
+    /**
+     * Exponentially weighted moving average, updated without locking.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class MovingAverage {
+
+        /**
+         * Bits of the current average, {@code NaN} if there is no sample.
+         *
+         * @since 26.10.17
+         */
+        private final AtomicLong bits;
+
+        /**
+         * Build a new instance.
+         *
+         * @since 26.10.17
+         */
+        MovingAverage() {
+            this.bits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        }
+
+        /**
+         * Add a sample.
+         *
+         * @param sample The sample
+         * @since 26.10.17
+         */
+        void add(final long sample) {
+            long current;
+            double average;
+            do {
+                current = this.bits.get();
+                average = Double.longBitsToDouble(current);
+                average = Double.isNaN(average) ? sample : average + (sample - average) * RenderStatistics.SAMPLE_WEIGHT;
+            } while (!this.bits.compareAndSet(current, Double.doubleToRawLongBits(average)));
+        }
+
+        /**
+         * Get the current average.
+         *
+         * @return The average, {@code 0} if there is no sample
+         * @since 26.10.17
+         */
+        double get() {
+            final double average = Double.longBitsToDouble(this.bits.get());
+            return Double.isNaN(average) ? 0 : average;
+        }
+
+        /**
+         * Get the expected value of the next sample, rounded up.
+         *
+         * @param fallback The value to use if there is no sample
+         * @return The expected value
+         * @since 26.10.17
+         */
+        int expected(final int fallback) {
+            final double average = Double.longBitsToDouble(this.bits.get());
+            return Double.isNaN(average) ? fallback : (int) Math.min(Integer.MAX_VALUE, Math.ceil(average));
+        }
+    }
+}
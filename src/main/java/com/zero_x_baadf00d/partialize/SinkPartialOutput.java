@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.sink.PartialSink;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Rendering destination sending events to a {@code PartialSink}.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class SinkPartialOutput extends PartialOutput {
+
+    /**
+     * The sink to send events to.
+     *
+     * @since 26.10.17
+     */
+    private final PartialSink sink;
+
+    /**
+     * Kind of each open container, {@code true} for arrays.
+     *
+     * @since 26.10.17
+     */
+    private boolean[] containers;
+
+    /**
+     * Number of open containers.
+     *
+     * @since 26.10.17
+     */
+    private int depth;
+
+    /**
+     * Build a new instance.
+     *
+     * @param sink The sink to send events to
+     * @since 26.10.17
+     */
+    SinkPartialOutput(final PartialSink sink) {
+        this.sink = sink;
+        this.containers = new boolean[16];
+    }
+
+    @Override
+    boolean inArray() {
+        return this.depth > 0 && this.containers[this.depth - 1];
+    }
+
+    @Override
+    void startObject(final String name) {
+        this.writeName(name);
+        this.push(false);
+        this.sink.beginObject();
+    }
+
+    @Override
+    void endObject() {
+        --this.depth;
+        this.sink.endObject();
+    }
+
+    @Override
+    void startArray(final String name) {
+        this.writeName(name);
+        this.push(true);
+        this.sink.beginArray();
+    }
+
+    @Override
+    void endArray() {
+        --this.depth;
+        this.sink.endArray();
+    }
+
+    @Override
+    void writeNull(final String name) {
+        this.writeName(name);
+        this.sink.nullValue();
+    }
+
+    @Override
+    void writeValue(final String name, final ValueWriter valueWriter, final Object value) {
+        this.writeName(name);
+        switch (valueWriter.getKind()) {
+            case STRING:
+                this.sink.value((String) value);
+                break;
+            case SHORT:
+                this.sink.value((short) (Short) value);
+                break;
+            case INTEGER:
+                this.sink.value((int) (Integer) value);
+                break;
+            case LONG:
+                this.sink.value((long) (Long) value);
+                break;
+            case FLOAT:
+                this.sink.value((float) (Float) value);
+                break;
+            case DOUBLE:
+                this.sink.value((double) (Double) value);
+                break;
+            case BIG_INTEGER:
+                this.sink.value((BigInteger) value);
+                break;
+            case BIG_DECIMAL:
+                this.sink.value((BigDecimal) value);
+                break;
+            case UUID:
+                this.sink.value(value.toString());
+                break;
+            case BOOLEAN:
+                this.sink.value((boolean) (Boolean) value);
+                break;
+            case ENUM:
+                final SerializedString enumString = valueWriter.getEnumString((Enum<?>) value);
+                if (enumString != null) {
+                    this.sink.value(enumString.getValue());
+                } else {
+                    this.sink.value(valueWriter.getEnumNode((Enum<?>) value).intValue());
+                }
+                break;
+            case BINARY:
+                this.sink.value((byte[]) value);
+                break;
+            case BINARY_STREAM:
+                this.sink.value((InputStream) value);
+                break;
+            case TEXT_STREAM:
+                this.sink.value((Reader) value);
+                break;
+            case RAW_JSON:
+                this.sink.value((RawJson) value);
+                break;
+            default:
+                this.sink.value((JsonNode) value);
+                break;
+        }
+    }
+
+    @Override
+    void writeConverted(final String name, final Converter<Object> converter, final Object value) {
+        converter.convert(name, value, this.sink, this.inArray());
+    }
+
+    /**
+     * Send the field name if the current container is an object.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    private void writeName(final String name) {
+        if (this.depth > 0 && !this.containers[this.depth - 1]) {
+            this.sink.field(name);
+        }
+    }
+
+    /**
+     * Open a new container.
+     *
+     * @param array Is the container an array
+     * @since 26.10.17
+     */
+    private void push(final boolean array) {
+        if (this.depth == this.containers.length) {
+            this.containers = Arrays.copyOf(this.containers, this.depth * 2);
+        }
+        this.containers[this.depth++] = array;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Stream keeping written bytes in memory until a threshold is passed.
+ * The bytes are then moved to a temporary file, which receives all
+ * further writes. The file is deleted when the stream, or the result
+ * built from it, is closed.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class SpillOutputStream extends OutputStream {
+
+    /**
+     * Default initial size of the memory buffer.
+     *
+     * @since 26.10.17
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Maximum number of bytes kept in memory.
+     *
+     * @since 26.10.17
+     */
+    private final int threshold;
+
+    /**
+     * Directory of the temporary file, {@code null} for the default
+     * temporary-file directory.
+     *
+     * @since 26.10.17
+     */
+    private final Path directory;
+
+    /**
+     * Bytes written so far, {@code null} once moved to the file.
+     *
+     * @since 26.10.17
+     */
+    private byte[] memory;
+
+    /**
+     * Number of bytes written so far.
+     *
+     * @since 26.10.17
+     */
+    private long size;
+
+    /**
+     * The temporary file, {@code null} while bytes are kept in memory.
+     *
+     * @since 26.10.17
+     */
+    private Path file;
+
+    /**
+     * Channel writing to the temporary file.
+     *
+     * @since 26.10.17
+     */
+    private FileChannel fileChannel;
+
+    /**
+     * Build a new instance.
+     *
+     * @param threshold       Maximum number of bytes kept in memory
+     * @param directory       Directory of the temporary file, {@code null} for the default temporary-file directory
+     * @param initialCapacity Initial size of the memory buffer, capped to the threshold
+     * @since 26.10.17
+     */
+    SpillOutputStream(final int threshold, final Path directory, final int initialCapacity) {
+        this.threshold = threshold;
+        this.directory = directory;
+        this.memory = new byte[Math.min(threshold, initialCapacity)];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.fileChannel == null && this.size + len > this.threshold) {
+            this.spill();
+        }
+        if (this.fileChannel != null) {
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(b, off, len);
+            while (byteBuffer.hasRemaining()) {
+                this.fileChannel.write(byteBuffer);
+            }
+        } else {
+            if (this.size + len > this.memory.length) {
+                this.memory = Arrays.copyOf(this.memory, (int) Math.min(this.threshold, Math.max(this.size + len, this.memory.length * 2L)));
+            }
+            System.arraycopy(b, off, this.memory, (int) this.size, len);
+        }
+        this.size += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.fileChannel != null) {
+            try {
+                this.fileChannel.close();
+            } finally {
+                Files.deleteIfExists(this.file);
+                this.fileChannel = null;
+            }
+        }
+        this.memory = null;
+    }
+
+    /**
+     * Get the written bytes as a result. The stream must not be used
+     * anymore, the result owns the temporary file.
+     *
+     * @return The result
+     * @since 26.10.17
+     */
+    PartialResult toResult() {
+        return this.fileChannel == null
+            ? new PartialResult(this.memory, (int) this.size)
+            : new PartialResult(this.file, this.fileChannel, this.size);
+    }
+
+    /**
+     * Move the bytes written so far to a new temporary file.
+     *
+     * @throws IOException If the file can't be created or written
+     * @since 26.10.17
+     */
+    private void spill() throws IOException {
+        this.file = this.directory == null
+            ? Files.createTempFile("partialize-", ".tmp")
+            : Files.createTempFile(this.directory, "partialize-", ".tmp");
+        this.fileChannel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(this.memory, 0, (int) this.size);
+        while (byteBuffer.hasRemaining()) {
+            this.fileChannel.write(byteBuffer);
+        }
+        this.memory = null;
+    }
+}
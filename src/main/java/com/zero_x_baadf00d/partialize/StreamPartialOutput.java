@@ -0,0 +1,291 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.internal.ValueStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Rendering destination emitting tokens directly to a generator,
+ * without building an intermediate tree. I/O errors are wrapped
+ * into {@code UncheckedIOException}.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class StreamPartialOutput extends PartialOutput {
+
+    /**
+     * Object mapper used to write JSON nodes and converted values.
+     *
+     * @since 26.10.17
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Node factory used to build converted values, and to normalize
+     * big decimals like the tree output does.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNodeFactory nodeFactory;
+
+    /**
+     * The generator to write to.
+     *
+     * @since 26.10.17
+     */
+    private final JsonGenerator generator;
+
+    /**
+     * Build a new instance.
+     *
+     * @param objectMapper Object mapper used to write JSON nodes
+     * @param nodeFactory  Node factory used to build converted values
+     * @param generator    The generator to write to
+     * @since 26.10.17
+     */
+    StreamPartialOutput(final ObjectMapper objectMapper, final JsonNodeFactory nodeFactory, final JsonGenerator generator) {
+        this.objectMapper = objectMapper;
+        this.nodeFactory = nodeFactory;
+        this.generator = generator;
+    }
+
+    @Override
+    boolean inArray() {
+        return this.generator.getOutputContext().inArray();
+    }
+
+    @Override
+    void startObject(final String name) {
+        try {
+            this.writeName(name);
+            this.generator.writeStartObject();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void endObject() {
+        try {
+            this.generator.writeEndObject();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void startArray(final String name) {
+        try {
+            this.writeName(name);
+            this.generator.writeStartArray();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void endArray() {
+        try {
+            this.generator.writeEndArray();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void writeNull(final String name) {
+        try {
+            this.writeName(name);
+            this.generator.writeNull();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void writeValue(final String name, final ValueWriter valueWriter, final Object value) {
+        try {
+            this.writeName(name);
+            switch (valueWriter.getKind()) {
+                case STRING:
+                    this.generator.writeString((String) value);
+                    break;
+                case SHORT:
+                    this.generator.writeNumber((Short) value);
+                    break;
+                case INTEGER:
+                    this.generator.writeNumber((Integer) value);
+                    break;
+                case LONG:
+                    this.generator.writeNumber((Long) value);
+                    break;
+                case FLOAT:
+                    this.generator.writeNumber((Float) value);
+                    break;
+                case DOUBLE:
+                    this.generator.writeNumber((Double) value);
+                    break;
+                case BIG_INTEGER:
+                    this.generator.writeNumber((BigInteger) value);
+                    break;
+                case BIG_DECIMAL:
+                    // Go through the node factory to apply the same normalization as the tree output
+                    this.objectMapper.writeTree(this.generator, this.nodeFactory.numberNode((BigDecimal) value));
+                    break;
+                case UUID:
+                    this.generator.writeString(value.toString());
+                    break;
+                case BOOLEAN:
+                    this.generator.writeBoolean((Boolean) value);
+                    break;
+                case ENUM:
+                    final SerializedString enumString = valueWriter.getEnumString((Enum<?>) value);
+                    if (enumString != null) {
+                        this.generator.writeString(enumString);
+                    } else {
+                        this.generator.writeNumber(valueWriter.getEnumNode((Enum<?>) value).intValue());
+                    }
+                    break;
+                case BINARY:
+                    this.generator.writeBinary((byte[]) value);
+                    break;
+                case BINARY_STREAM:
+                    if (this.generator.canWriteBinaryNatively()) {
+                        // Binary formats need the length of the value before its content
+                        this.generator.writeBinary(ValueStreams.readBytes((InputStream) value));
+                    } else {
+                        this.generator.writeBinary((InputStream) value, -1);
+                    }
+                    break;
+                case TEXT_STREAM:
+                    if (this.generator.canWriteBinaryNatively()) {
+                        this.generator.writeString(ValueStreams.readText((Reader) value));
+                    } else {
+                        this.generator.writeString((Reader) value, -1);
+                    }
+                    break;
+                case RAW_JSON:
+                    this.writeRawJson((RawJson) value);
+                    break;
+                default:
+                    this.objectMapper.writeTree(this.generator, (JsonNode) value);
+                    break;
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void copyValue(final String name, final JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            this.startObject(name);
+            this.endObject();
+            return;
+        }
+        // Tokens already copied can't be taken back, a malformed value aborts the document
+        try {
+            this.writeName(name);
+            this.generator.copyCurrentStructure(parser);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    void writeConverted(final String name, final Converter<Object> converter, final Object value) {
+        try {
+            if (this.generator.getOutputContext().inObject()) {
+                final ObjectNode objectNode = this.nodeFactory.objectNode();
+                converter.convert(name, value, objectNode);
+                final Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
+                while (iterator.hasNext()) {
+                    final Map.Entry<String, JsonNode> entry = iterator.next();
+                    this.generator.writeFieldName(entry.getKey());
+                    this.objectMapper.writeTree(this.generator, entry.getValue());
+                }
+            } else {
+                final ArrayNode arrayNode = this.nodeFactory.arrayNode();
+                converter.convert(name, value, arrayNode);
+                for (final JsonNode item : arrayNode) {
+                    this.objectMapper.writeTree(this.generator, item);
+                }
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Write a raw JSON value. The value is written verbatim by text
+     * generators, binary generators get a copy of its tokens.
+     *
+     * @param rawJson The raw JSON value
+     * @throws IOException If the value can't be written
+     * @since 26.10.17
+     */
+    private void writeRawJson(final RawJson rawJson) throws IOException {
+        if (!this.generator.canWriteBinaryNatively()) {
+            this.generator.writeRawValue(rawJson.asSerializableString());
+            return;
+        }
+        try (JsonParser parser = rawJson.createParser(this.objectMapper.getFactory())) {
+            parser.nextToken();
+            this.generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * Write the field name if the current container is an object.
+     *
+     * @param name The field name
+     * @throws IOException If the field name can't be written
+     * @since 26.10.17
+     */
+    private void writeName(final String name) throws IOException {
+        if (this.generator.getOutputContext().inObject()) {
+            this.generator.writeFieldName(name);
+        }
+    }
+}
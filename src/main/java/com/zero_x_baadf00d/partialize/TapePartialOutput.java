@@ -0,0 +1,480 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BinaryNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.internal.ValueStreams;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Rendering destination recording tokens on the tape of a
+ * {@link PartialDocument}. Field names are stored once, values
+ * produced by converters or JSON nodes are recorded token by token.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class TapePartialOutput extends PartialOutput {
+
+    /**
+     * Initial number of slots of the tape.
+     *
+     * @since 26.10.17
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Object mapper used to write opaque nodes.
+     *
+     * @since 26.10.17
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Node factory used to build converted values, and to normalize
+     * big decimals like the tree output does.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNodeFactory nodeFactory;
+
+    /**
+     * Index of the field names in the string table.
+     *
+     * @since 26.10.17
+     */
+    private final Map<String, Integer> fieldNames;
+
+    /**
+     * The tokens.
+     *
+     * @since 26.10.17
+     */
+    private long[] tape;
+
+    /**
+     * Number of used slots in the tape.
+     *
+     * @since 26.10.17
+     */
+    private int length;
+
+    /**
+     * Field names and string values.
+     *
+     * @since 26.10.17
+     */
+    private String[] strings;
+
+    /**
+     * Number of used entries in the string table.
+     *
+     * @since 26.10.17
+     */
+    private int stringCount;
+
+    /**
+     * Values which don't fit in the tape.
+     *
+     * @since 26.10.17
+     */
+    private Object[] objects;
+
+    /**
+     * Number of used entries in the object table.
+     *
+     * @since 26.10.17
+     */
+    private int objectCount;
+
+    /**
+     * Positions of the opened containers, the current one last.
+     *
+     * @since 26.10.17
+     */
+    private int[] containers;
+
+    /**
+     * Number of opened containers.
+     *
+     * @since 26.10.17
+     */
+    private int depth;
+
+    /**
+     * Build a new instance.
+     *
+     * @param objectMapper Object mapper used to write opaque nodes
+     * @param nodeFactory  Node factory used to build converted values
+     * @since 26.10.17
+     */
+    TapePartialOutput(final ObjectMapper objectMapper, final JsonNodeFactory nodeFactory) {
+        this.objectMapper = objectMapper;
+        this.nodeFactory = nodeFactory;
+        this.fieldNames = new HashMap<>();
+        this.tape = new long[TapePartialOutput.INITIAL_CAPACITY];
+        this.strings = new String[TapePartialOutput.INITIAL_CAPACITY];
+        this.objects = new Object[0];
+        this.containers = new int[8];
+    }
+
+    /**
+     * Get the recorded document.
+     *
+     * @return The document
+     * @since 26.10.17
+     */
+    PartialDocument toDocument() {
+        return new PartialDocument(this.tape, this.length, this.strings, this.objects, this.objectMapper);
+    }
+
+    @Override
+    boolean inArray() {
+        return this.depth > 0 && this.typeOfContainer() == PartialDocument.START_ARRAY;
+    }
+
+    @Override
+    void startObject(final String name) {
+        this.writeName(name);
+        this.open(PartialDocument.START_OBJECT);
+    }
+
+    @Override
+    void endObject() {
+        this.close(PartialDocument.END_OBJECT);
+    }
+
+    @Override
+    void startArray(final String name) {
+        this.writeName(name);
+        this.open(PartialDocument.START_ARRAY);
+    }
+
+    @Override
+    void endArray() {
+        this.close(PartialDocument.END_ARRAY);
+    }
+
+    @Override
+    void writeNull(final String name) {
+        this.writeName(name);
+        this.append(PartialDocument.NULL, 0);
+    }
+
+    @Override
+    void writeValue(final String name, final ValueWriter valueWriter, final Object value) {
+        this.writeName(name);
+        switch (valueWriter.getKind()) {
+            case STRING:
+                this.appendString((String) value);
+                break;
+            case SHORT:
+                this.append(PartialDocument.INT, (Short) value);
+                break;
+            case INTEGER:
+                this.append(PartialDocument.INT, (Integer) value);
+                break;
+            case LONG:
+                this.appendLong((Long) value);
+                break;
+            case FLOAT:
+                this.append(PartialDocument.FLOAT, Float.floatToRawIntBits((Float) value));
+                break;
+            case DOUBLE:
+                this.appendDouble((Double) value);
+                break;
+            case BIG_DECIMAL:
+                // Go through the node factory to apply the same normalization as the tree output
+                this.appendNode(this.nodeFactory.numberNode((BigDecimal) value));
+                break;
+            case UUID:
+                this.appendString(value.toString());
+                break;
+            case BOOLEAN:
+                this.append((Boolean) value ? PartialDocument.TRUE : PartialDocument.FALSE, 0);
+                break;
+            case ENUM:
+                final SerializedString enumString = valueWriter.getEnumString((Enum<?>) value);
+                if (enumString != null) {
+                    this.appendString(enumString.getValue());
+                } else {
+                    this.append(PartialDocument.INT, valueWriter.getEnumNode((Enum<?>) value).intValue());
+                }
+                break;
+            case BINARY_STREAM:
+                this.appendObject(ValueStreams.readBytes((InputStream) value));
+                break;
+            case TEXT_STREAM:
+                this.appendString(ValueStreams.readText((Reader) value));
+                break;
+            case BIG_INTEGER:
+            case BINARY:
+            case RAW_JSON:
+                this.appendObject(value);
+                break;
+            default:
+                this.appendNode((JsonNode) value);
+                break;
+        }
+    }
+
+    @Override
+    void writeConverted(final String name, final Converter<Object> converter, final Object value) {
+        if (this.inArray()) {
+            final ArrayNode arrayNode = this.nodeFactory.arrayNode();
+            converter.convert(name, value, arrayNode);
+            for (final JsonNode item : arrayNode) {
+                this.appendNode(item);
+            }
+        } else {
+            final ObjectNode objectNode = this.nodeFactory.objectNode();
+            converter.convert(name, value, objectNode);
+            final Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, JsonNode> entry = iterator.next();
+                this.writeName(entry.getKey());
+                this.appendNode(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Get the type of the current container.
+     *
+     * @return The token type of the start of the current container
+     * @since 26.10.17
+     */
+    private int typeOfContainer() {
+        return (int) (this.tape[this.containers[this.depth - 1]] >>> PartialDocument.PAYLOAD_BITS);
+    }
+
+    /**
+     * Record the field name if the current container is an object.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    private void writeName(final String name) {
+        if (this.depth > 0 && this.typeOfContainer() == PartialDocument.START_OBJECT) {
+            Integer stringIndex = this.fieldNames.get(name);
+            if (stringIndex == null) {
+                stringIndex = this.addString(name);
+                this.fieldNames.put(name, stringIndex);
+            }
+            this.append(PartialDocument.FIELD_NAME, stringIndex);
+        }
+    }
+
+    /**
+     * Open a new container.
+     *
+     * @param type The token type of the start of the container
+     * @since 26.10.17
+     */
+    private void open(final int type) {
+        if (this.depth == this.containers.length) {
+            this.containers = Arrays.copyOf(this.containers, this.depth * 2);
+        }
+        this.containers[this.depth] = this.length;
+        this.depth += 1;
+        this.append(type, 0);
+    }
+
+    /**
+     * Close the current container. Its start and its end are linked to
+     * each other.
+     *
+     * @param type The token type of the end of the container
+     * @since 26.10.17
+     */
+    private void close(final int type) {
+        this.depth -= 1;
+        final int start = this.containers[this.depth];
+        this.tape[start] = this.tape[start] | this.length;
+        this.append(type, start);
+    }
+
+    /**
+     * Record a JSON node. Containers and scalars are recorded token by
+     * token, other nodes are kept as is.
+     *
+     * @param node The node to record
+     * @since 26.10.17
+     */
+    private void appendNode(final JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                this.open(PartialDocument.START_OBJECT);
+                final Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+                while (iterator.hasNext()) {
+                    final Map.Entry<String, JsonNode> entry = iterator.next();
+                    this.writeName(entry.getKey());
+                    this.appendNode(entry.getValue());
+                }
+                this.close(PartialDocument.END_OBJECT);
+                break;
+            case ARRAY:
+                this.open(PartialDocument.START_ARRAY);
+                for (final JsonNode item : node) {
+                    this.appendNode(item);
+                }
+                this.close(PartialDocument.END_ARRAY);
+                break;
+            case STRING:
+                this.appendString(node.textValue());
+                break;
+            case BOOLEAN:
+                this.append(node.booleanValue() ? PartialDocument.TRUE : PartialDocument.FALSE, 0);
+                break;
+            case NULL:
+                this.append(PartialDocument.NULL, 0);
+                break;
+            case NUMBER:
+                if (node.isInt() || node.isShort()) {
+                    this.append(PartialDocument.INT, node.intValue());
+                } else if (node.isLong()) {
+                    this.appendLong(node.longValue());
+                } else if (node.isFloat()) {
+                    this.append(PartialDocument.FLOAT, Float.floatToRawIntBits(node.floatValue()));
+                } else if (node.isDouble()) {
+                    this.appendDouble(node.doubleValue());
+                } else {
+                    this.appendObject(node.numberValue());
+                }
+                break;
+            case BINARY:
+                this.appendObject(((BinaryNode) node).binaryValue());
+                break;
+            default:
+                this.appendObject(node);
+                break;
+        }
+    }
+
+    /**
+     * Record a string value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    private void appendString(final String value) {
+        this.append(PartialDocument.STRING, this.addString(value));
+    }
+
+    /**
+     * Record a long value, stored in the next slot.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    private void appendLong(final long value) {
+        this.append(PartialDocument.LONG, 0);
+        this.ensureCapacity();
+        this.tape[this.length] = value;
+        this.length += 1;
+    }
+
+    /**
+     * Record a double value, stored in the next slot.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    private void appendDouble(final double value) {
+        this.append(PartialDocument.DOUBLE, 0);
+        this.ensureCapacity();
+        this.tape[this.length] = Double.doubleToRawLongBits(value);
+        this.length += 1;
+    }
+
+    /**
+     * Record a value in the object table.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    private void appendObject(final Object value) {
+        if (this.objectCount == this.objects.length) {
+            this.objects = Arrays.copyOf(this.objects, Math.max(8, this.objectCount * 2));
+        }
+        this.objects[this.objectCount] = value;
+        this.append(PartialDocument.OBJECT, this.objectCount);
+        this.objectCount += 1;
+    }
+
+    /**
+     * Add a string to the string table.
+     *
+     * @param value The string
+     * @return The index of the string
+     * @since 26.10.17
+     */
+    private int addString(final String value) {
+        if (this.stringCount == this.strings.length) {
+            this.strings = Arrays.copyOf(this.strings, this.stringCount * 2);
+        }
+        this.strings[this.stringCount] = value;
+        this.stringCount += 1;
+        return this.stringCount - 1;
+    }
+
+    /**
+     * Record a token.
+     *
+     * @param type    The token type
+     * @param payload The payload
+     * @since 26.10.17
+     */
+    private void append(final int type, final int payload) {
+        this.ensureCapacity();
+        this.tape[this.length] = ((long) type << PartialDocument.PAYLOAD_BITS) | (payload & PartialDocument.PAYLOAD_MASK);
+        this.length += 1;
+    }
+
+    /**
+     * Make room for one more slot in the tape.
+     *
+     * @since 26.10.17
+     */
+    private void ensureCapacity() {
+        if (this.length == this.tape.length) {
+            this.tape = Arrays.copyOf(this.tape, this.length * 2);
+        }
+    }
+}
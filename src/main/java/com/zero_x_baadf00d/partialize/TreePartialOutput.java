@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.internal.ValueStreams;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+
+/**
+ * Rendering destination building a JSON tree.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class TreePartialOutput extends PartialOutput {
+
+    /**
+     * Factory used to create nodes.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNodeFactory nodeFactory;
+
+    /**
+     * Whether annotated objects are written as views rendered on demand.
+     *
+     * @since 26.10.17
+     */
+    private final boolean lazy;
+
+    /**
+     * Opened containers, the current one first.
+     *
+     * @since 26.10.17
+     */
+    private final Deque<ContainerNode<?>> containers;
+
+    /**
+     * The current container, if it is an object.
+     *
+     * @since 26.10.17
+     */
+    private ObjectNode currentObject;
+
+    /**
+     * The current container, if it is an array.
+     *
+     * @since 26.10.17
+     */
+    private ArrayNode currentArray;
+
+    /**
+     * The root container.
+     *
+     * @since 26.10.17
+     */
+    private ContainerNode<?> root;
+
+    /**
+     * Existing object receiving the fields of the root object,
+     * {@code null} if a new root object has to be created.
+     *
+     * @since 26.10.17
+     */
+    private ObjectNode targetObject;
+
+    /**
+     * Build a new instance.
+     *
+     * @param nodeFactory Factory used to create nodes
+     * @since 26.10.17
+     */
+    TreePartialOutput(final JsonNodeFactory nodeFactory) {
+        this(nodeFactory, false);
+    }
+
+    /**
+     * Build a new instance.
+     *
+     * @param nodeFactory Factory used to create nodes
+     * @param lazy        Whether annotated objects are written as views rendered on demand
+     * @since 26.10.17
+     */
+    TreePartialOutput(final JsonNodeFactory nodeFactory, final boolean lazy) {
+        this.nodeFactory = nodeFactory;
+        this.lazy = lazy;
+        this.containers = new ArrayDeque<>();
+    }
+
+    /**
+     * Build a new instance writing into an existing container. An object
+     * receives the fields of the root object, an array receives the
+     * rendered values as items.
+     *
+     * @param nodeFactory Factory used to create nodes
+     * @param target      The container to write into
+     * @since 26.10.17
+     */
+    TreePartialOutput(final JsonNodeFactory nodeFactory, final ContainerNode<?> target) {
+        this(nodeFactory, target, false);
+    }
+
+    /**
+     * Build a new instance writing into an existing container.
+     *
+     * @param nodeFactory Factory used to create nodes
+     * @param target      The container to write into
+     * @param lazy        Whether annotated objects are written as views rendered on demand
+     * @since 26.10.17
+     */
+    TreePartialOutput(final JsonNodeFactory nodeFactory, final ContainerNode<?> target, final boolean lazy) {
+        this(nodeFactory, lazy);
+        if (target instanceof ArrayNode) {
+            this.push(target);
+        } else {
+            this.targetObject = (ObjectNode) target;
+        }
+    }
+
+    /**
+     * Get the root container.
+     *
+     * @return The root container, otherwise, {@code null} if nothing has been written
+     * @since 26.10.17
+     */
+    ContainerNode<?> getRoot() {
+        return this.root;
+    }
+
+    @Override
+    boolean isLazy() {
+        return this.lazy;
+    }
+
+    @Override
+    void writeLazyObject(final String name, final LazyObjectNode node) {
+        if (this.currentObject == null && this.currentArray == null) {
+            this.root = node;
+        } else {
+            this.append(name, node);
+        }
+    }
+
+    @Override
+    boolean inArray() {
+        return this.currentArray != null;
+    }
+
+    @Override
+    void startObject(final String name) {
+        this.startObject(name, 0);
+    }
+
+    @Override
+    void startObject(final String name, final int expectedSize) {
+        final ObjectNode objectNode;
+        if (this.currentObject == null && this.currentArray == null && this.targetObject != null) {
+            objectNode = this.targetObject;
+            this.targetObject = null;
+        } else {
+            objectNode = expectedSize > 0
+                ? new ObjectNode(this.nodeFactory, new LinkedHashMap<>(TreePartialOutput.mapCapacity(expectedSize)))
+                : this.nodeFactory.objectNode();
+            if (this.currentObject != null) {
+                this.currentObject.set(name, objectNode);
+            } else if (this.currentArray != null) {
+                this.currentArray.add(objectNode);
+            }
+        }
+        this.push(objectNode);
+    }
+
+    @Override
+    void endObject() {
+        this.pop();
+    }
+
+    @Override
+    void startArray(final String name) {
+        this.startArray(name, 0);
+    }
+
+    @Override
+    void startArray(final String name, final int expectedSize) {
+        final ArrayNode arrayNode = expectedSize > 0
+            ? new ArrayNode(this.nodeFactory, expectedSize)
+            : this.nodeFactory.arrayNode();
+        if (this.currentObject != null) {
+            this.currentObject.set(name, arrayNode);
+        } else if (this.currentArray != null) {
+            this.currentArray.add(arrayNode);
+        }
+        this.push(arrayNode);
+    }
+
+    @Override
+    void endArray() {
+        this.pop();
+    }
+
+    @Override
+    void writeNull(final String name) {
+        this.append(name, this.nodeFactory.nullNode());
+    }
+
+    @Override
+    void writeValue(final String name, final ValueWriter valueWriter, final Object value) {
+        switch (valueWriter.getKind()) {
+            case STRING:
+                this.append(name, this.nodeFactory.textNode((String) value));
+                break;
+            case SHORT:
+                this.append(name, this.nodeFactory.numberNode((Short) value));
+                break;
+            case INTEGER:
+                this.append(name, this.nodeFactory.numberNode((Integer) value));
+                break;
+            case LONG:
+                this.append(name, this.nodeFactory.numberNode((Long) value));
+                break;
+            case FLOAT:
+                this.append(name, this.nodeFactory.numberNode((Float) value));
+                break;
+            case DOUBLE:
+                this.append(name, this.nodeFactory.numberNode((Double) value));
+                break;
+            case BIG_INTEGER:
+                this.append(name, this.nodeFactory.numberNode((BigInteger) value));
+                break;
+            case BIG_DECIMAL:
+                this.append(name, this.nodeFactory.numberNode((BigDecimal) value));
+                break;
+            case UUID:
+                this.append(name, this.nodeFactory.textNode(value.toString()));
+                break;
+            case BOOLEAN:
+                this.append(name, this.nodeFactory.booleanNode((Boolean) value));
+                break;
+            case ENUM:
+                this.append(name, valueWriter.getEnumNode((Enum<?>) value));
+                break;
+            case BINARY:
+                this.append(name, this.nodeFactory.binaryNode((byte[]) value));
+                break;
+            case BINARY_STREAM:
+                this.append(name, this.nodeFactory.binaryNode(ValueStreams.readBytes((InputStream) value)));
+                break;
+            case TEXT_STREAM:
+                this.append(name, this.nodeFactory.textNode(ValueStreams.readText((Reader) value)));
+                break;
+            case RAW_JSON:
+                this.append(name, this.nodeFactory.rawValueNode(new RawValue(((RawJson) value).asSerializableString())));
+                break;
+            default:
+                this.append(name, this.nodeFactory.pojoNode(value));
+                break;
+        }
+    }
+
+    @Override
+    void writeConverted(final String name, final Converter<Object> converter, final Object value) {
+        if (this.currentObject != null) {
+            converter.convert(name, value, this.currentObject);
+        } else {
+            converter.convert(name, value, this.currentArray);
+        }
+    }
+
+    /**
+     * Get the initial capacity of a map holding the given number of
+     * entries without being resized.
+     *
+     * @param expectedSize The expected number of entries
+     * @return The initial capacity
+     * @since 26.10.17
+     */
+    private static int mapCapacity(final int expectedSize) {
+        return (int) Math.min(Integer.MAX_VALUE, expectedSize * 4L / 3 + 1);
+    }
+
+    /**
+     * Append a node to the current container.
+     *
+     * @param name The field name
+     * @param node The node to append
+     * @since 26.10.17
+     */
+    private void append(final String name, final JsonNode node) {
+        if (this.currentObject != null) {
+            this.currentObject.set(name, node);
+        } else {
+            this.currentArray.add(node);
+        }
+    }
+
+    /**
+     * Open the given container.
+     *
+     * @param containerNode The container
+     * @since 26.10.17
+     */
+    private void push(final ContainerNode<?> containerNode) {
+        if (this.root == null) {
+            this.root = containerNode;
+        }
+        this.containers.push(containerNode);
+        this.setCurrent(containerNode);
+    }
+
+    /**
+     * Close the current container.
+     *
+     * @since 26.10.17
+     */
+    private void pop() {
+        this.containers.pop();
+        this.setCurrent(this.containers.peek());
+    }
+
+    /**
+     * Set the current container.
+     *
+     * @param containerNode The container, can be {@code null}
+     * @since 26.10.17
+     */
+    private void setCurrent(final ContainerNode<?> containerNode) {
+        this.currentObject = containerNode instanceof ObjectNode ? (ObjectNode) containerNode : null;
+        this.currentArray = containerNode instanceof ArrayNode ? (ArrayNode) containerNode : null;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * How values of a given runtime class are written. The writer is
+ * resolved once per class, rendering a value is then a single switch
+ * on its kind instead of a chain of {@code instanceof} checks.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class ValueWriter {
+
+    /**
+     * Resolved writers, indexed by runtime class. Replaced when the
+     * registered converters change.
+     *
+     * @since 26.10.17
+     */
+    private static volatile ClassValue<ValueWriter> writers = ValueWriter.createWriters();
+
+    /**
+     * The kind of value.
+     *
+     * @since 26.10.17
+     */
+    private final Kind kind;
+
+    /**
+     * The converter to use, only set for {@link Kind#CONVERTER}.
+     *
+     * @since 26.10.17
+     */
+    private final Converter<Object> converter;
+
+    /**
+     * Rendered form of each enum constant, indexed by ordinal. Only
+     * set for {@link Kind#ENUM}.
+     *
+     * @since 26.10.17
+     */
+    private final JsonNode[] enumNodes;
+
+    /**
+     * Pre-encoded form of each enum constant rendered as a string,
+     * indexed by ordinal. Constants rendered as a number are {@code null}.
+     *
+     * @since 26.10.17
+     */
+    private final SerializedString[] enumStrings;
+
+    /**
+     * Build a new instance.
+     *
+     * @param kind      The kind of value
+     * @param converter The converter to use, can be {@code null}
+     * @param enumNodes The rendered enum constants, can be {@code null}
+     * @since 26.10.17
+     */
+    private ValueWriter(final Kind kind, final Converter<Object> converter, final JsonNode[] enumNodes) {
+        this.kind = kind;
+        this.converter = converter;
+        this.enumNodes = enumNodes;
+        if (enumNodes != null) {
+            this.enumStrings = new SerializedString[enumNodes.length];
+            for (int idx = 0; idx < enumNodes.length; ++idx) {
+                if (enumNodes[idx].isTextual()) {
+                    this.enumStrings[idx] = new SerializedString(enumNodes[idx].textValue());
+                }
+            }
+        } else {
+            this.enumStrings = null;
+        }
+    }
+
+    /**
+     * Get the writer of the given runtime class.
+     *
+     * @param clazz The runtime class of the value
+     * @return The writer
+     * @since 26.10.17
+     */
+    static ValueWriter of(final Class<?> clazz) {
+        return ValueWriter.writers.get(clazz);
+    }
+
+    /**
+     * Forget all resolved writers. Must be called each time the
+     * registered converters change.
+     *
+     * @since 26.10.17
+     */
+    static void invalidate() {
+        ValueWriter.writers = ValueWriter.createWriters();
+    }
+
+    /**
+     * Create an empty writers cache.
+     *
+     * @return The writers cache
+     * @since 26.10.17
+     */
+    private static ClassValue<ValueWriter> createWriters() {
+        return new ClassValue<ValueWriter>() {
+
+            @Override
+            protected ValueWriter computeValue(final Class<?> clazz) {
+                return ValueWriter.resolve(clazz);
+            }
+        };
+    }
+
+    /**
+     * Resolve the writer of the given runtime class. Builtin types are
+     * checked first, then registered converters.
+     *
+     * @param clazz The runtime class of the value
+     * @return The writer
+     * @since 26.10.17
+     */
+    private static ValueWriter resolve(final Class<?> clazz) {
+        final Kind kind;
+        if (clazz == Optional.class) {
+            kind = Kind.OPTIONAL;
+        } else if (clazz == String.class) {
+            kind = Kind.STRING;
+        } else if (clazz == Short.class) {
+            kind = Kind.SHORT;
+        } else if (clazz == Integer.class) {
+            kind = Kind.INTEGER;
+        } else if (clazz == Long.class) {
+            kind = Kind.LONG;
+        } else if (clazz == Float.class) {
+            kind = Kind.FLOAT;
+        } else if (clazz == Double.class) {
+            kind = Kind.DOUBLE;
+        } else if (BigInteger.class.isAssignableFrom(clazz)) {
+            kind = Kind.BIG_INTEGER;
+        } else if (BigDecimal.class.isAssignableFrom(clazz)) {
+            kind = Kind.BIG_DECIMAL;
+        } else if (clazz == UUID.class) {
+            kind = Kind.UUID;
+        } else if (clazz == Boolean.class) {
+            kind = Kind.BOOLEAN;
+        } else if (JsonNode.class.isAssignableFrom(clazz)) {
+            kind = Kind.JSON_NODE;
+        } else if (clazz == RawJson.class) {
+            kind = Kind.RAW_JSON;
+        } else if (clazz == byte[].class) {
+            kind = Kind.BINARY;
+        } else if (InputStream.class.isAssignableFrom(clazz)) {
+            kind = Kind.BINARY_STREAM;
+        } else if (Reader.class.isAssignableFrom(clazz)) {
+            kind = Kind.TEXT_STREAM;
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            kind = Kind.COLLECTION;
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            kind = Kind.MAP;
+        } else if (Enum.class.isAssignableFrom(clazz)) {
+            return new ValueWriter(Kind.ENUM, null, ValueWriter.renderEnumConstants(clazz));
+        } else {
+            final Converter<Object> converter = PartializeConverterManager.getInstance().getConverter(clazz);
+            if (converter != null) {
+                return new ValueWriter(Kind.CONVERTER, converter, null);
+            }
+            kind = Kind.OBJECT;
+        }
+        return new ValueWriter(kind, null, null);
+    }
+
+    /**
+     * Render all constants of the given enum. A constant whose string
+     * representation is an integer is rendered as a number, otherwise,
+     * as a string.
+     *
+     * @param clazz The enum class, or the class of a constant with a body
+     * @return The rendered constants, indexed by ordinal
+     * @since 26.10.17
+     */
+    private static JsonNode[] renderEnumConstants(final Class<?> clazz) {
+        final Class<?> enumClass = clazz.isEnum() ? clazz : clazz.getSuperclass();
+        final Object[] constants = enumClass.getEnumConstants();
+        final JsonNode[] enumNodes = new JsonNode[constants.length];
+        for (int idx = 0; idx < constants.length; ++idx) {
+            final String tmp = constants[idx].toString();
+            JsonNode enumNode;
+            try {
+                enumNode = IntNode.valueOf(Integer.parseInt(tmp));
+            } catch (final NumberFormatException ignore) {
+                enumNode = TextNode.valueOf(tmp);
+            }
+            enumNodes[idx] = enumNode;
+        }
+        return enumNodes;
+    }
+
+    /**
+     * Get the kind of value.
+     *
+     * @return The kind of value
+     * @since 26.10.17
+     */
+    Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Get the converter to use.
+     *
+     * @return The converter, only set for {@link Kind#CONVERTER}
+     * @since 26.10.17
+     */
+    Converter<Object> getConverter() {
+        return this.converter;
+    }
+
+    /**
+     * Get the rendered form of the given enum constant.
+     *
+     * @param constant The enum constant
+     * @return The rendered constant, only set for {@link Kind#ENUM}
+     * @since 26.10.17
+     */
+    JsonNode getEnumNode(final Enum<?> constant) {
+        return this.enumNodes[constant.ordinal()];
+    }
+
+    /**
+     * Get the pre-encoded form of the given enum constant.
+     *
+     * @param constant The enum constant
+     * @return The pre-encoded constant, otherwise, {@code null} if it is rendered as a number
+     * @since 26.10.17
+     */
+    SerializedString getEnumString(final Enum<?> constant) {
+        return this.enumStrings[constant.ordinal()];
+    }
+
+    /**
+     * Kinds of value.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    enum Kind {
+        OPTIONAL,
+        STRING,
+        SHORT,
+        INTEGER,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        BIG_INTEGER,
+        BIG_DECIMAL,
+        UUID,
+        BOOLEAN,
+        JSON_NODE,
+        RAW_JSON,
+        BINARY,
+        BINARY_STREAM,
+        TEXT_STREAM,
+        COLLECTION,
+        MAP,
+        ENUM,
+        CONVERTER,
+        OBJECT
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize.accessor;
+
+/**
+ * Reflection-free accessors of a class annotated with {@code @Partialize}.
+ * Implementations are generated at compile time by the Partialize
+ * annotation processor and discovered with {@code ServiceLoader}.
+ *
+ * @param <T> The type of the managed class
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public interface GeneratedAccessors<T> {
+
+    /**
+     * Get class of the object managed by these accessors.
+     *
+     * @return The class of the managed object
+     * @since 26.10.17
+     */
+    Class<T> getManagedObjectClass();
+
+    /**
+     * Get the allowed field names.
+     *
+     * @return An array of allowed field names
+     * @since 26.10.17
+     */
+    String[] getAllowedFields();
+
+    /**
+     * Get the default field names.
+     *
+     * @return An array of default field names, empty if none are declared
+     * @since 26.10.17
+     */
+    String[] getDefaultFields();
+
+    /**
+     * Check if the getter of the given field is static.
+     *
+     * @param fieldIndex The index of the field in {@link #getAllowedFields()}
+     * @return {@code true} if the getter is static
+     * @since 26.10.17
+     */
+    boolean isStatic(final int fieldIndex);
+
+    /**
+     * Call the getter of the given field.
+     *
+     * @param fieldIndex The index of the field in {@link #getAllowedFields()}
+     * @param instance   The instance, can be {@code null} if the getter is static
+     * @return The value returned by the getter
+     * @since 26.10.17
+     */
+    Object getValue(final int fieldIndex, final T instance);
+}
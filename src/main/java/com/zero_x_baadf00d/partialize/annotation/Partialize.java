@@ -34,7 +34,7 @@ import java.lang.annotation.Target;
  * Indicate that the decorated class can be processed by Partialize.
  *
  * @author Thibault Meyer
- * @version 16.03.15
+ * @version 26.10.17
  * @since 16.01.18
  */
 @Inherited
@@ -58,4 +58,13 @@ public @interface Partialize {
      * @since 16.01.18
      */
     String[] defaultFields() default {};
+
+    /**
+     * Allowed field identifying instances in normalized documents. When
+     * not set, instances are identified by reference.
+     *
+     * @return The identifier field name
+     * @since 26.10.17
+     */
+    String identifierField() default "";
 }
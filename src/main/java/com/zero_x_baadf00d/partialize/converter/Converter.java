@@ -23,14 +23,20 @@
  */
 package com.zero_x_baadf00d.partialize.converter;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.sink.PartialSink;
+
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * All converters must implement this interface.
  *
  * @author Thibault Meyer
- * @version 16.03.22
+ * @version 26.10.17
  * @since 16.01.18
  */
 public interface Converter<T> {
@@ -55,6 +61,37 @@ public interface Converter<T> {
      */
     void convert(final String fieldName, final T data, final ArrayNode node);
 
+    /**
+     * Convert the given data to events sent to the given sink. When the
+     * data is a member of an object, each value must be preceded by its
+     * field name. By default, the data is converted into a temporary node,
+     * which is then sent to the sink. Override this method to avoid it.
+     *
+     * @param fieldName The field name
+     * @param data      The data to convert
+     * @param sink      The sink where to send the converted data
+     * @param inArray   Is the data an item of an array
+     * @since 26.10.17
+     */
+    default void convert(final String fieldName, final T data, final PartialSink sink, final boolean inArray) {
+        if (inArray) {
+            final ArrayNode arrayNode = JsonNodeFactory.instance.arrayNode();
+            this.convert(fieldName, data, arrayNode);
+            for (final JsonNode item : arrayNode) {
+                sink.value(item);
+            }
+        } else {
+            final ObjectNode objectNode = JsonNodeFactory.instance.objectNode();
+            this.convert(fieldName, data, objectNode);
+            final Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, JsonNode> entry = iterator.next();
+                sink.field(entry.getKey());
+                sink.value(entry.getValue());
+            }
+        }
+    }
+
     /**
      * Get class of the object managed by this converter.
      *
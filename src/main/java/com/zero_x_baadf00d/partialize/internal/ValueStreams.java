@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Helpers reading stream values in full, for the outputs and sinks
+ * which can't write them in chunks. This package is not exported and
+ * is not part of the public API.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public final class ValueStreams {
+
+    /**
+     * Size of the chunks read from text streams.
+     *
+     * @since 26.10.17
+     */
+    private static final int TEXT_CHUNK_SIZE = 8192;
+
+    /**
+     * Build a new instance.
+     *
+     * @since 26.10.17
+     */
+    private ValueStreams() {
+    }
+
+    /**
+     * Read the remaining bytes of the given stream.
+     *
+     * @param inputStream The stream to read
+     * @return The bytes
+     * @since 26.10.17
+     */
+    public static byte[] readBytes(final InputStream inputStream) {
+        try {
+            return inputStream.readAllBytes();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Read the remaining characters of the given reader.
+     *
+     * @param reader The reader to read
+     * @return The text
+     * @since 26.10.17
+     */
+    public static String readText(final Reader reader) {
+        final StringBuilder sb = new StringBuilder();
+        final char[] chunk = new char[ValueStreams.TEXT_CHUNK_SIZE];
+        try {
+            int count = reader.read(chunk);
+            while (count >= 0) {
+                sb.append(chunk, 0, count);
+                count = reader.read(chunk);
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize.sink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.RawJson;
+import com.zero_x_baadf00d.partialize.internal.ValueStreams;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Receives a partial document as a sequence of events, without any
+ * intermediate JSON tree. Inside an object, each value is preceded by
+ * a call to {@link #field(String)}. Inside an array, or at the root,
+ * values are sent without field name.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public interface PartialSink {
+
+    /**
+     * Begin a new object.
+     *
+     * @since 26.10.17
+     */
+    void beginObject();
+
+    /**
+     * End the current object.
+     *
+     * @since 26.10.17
+     */
+    void endObject();
+
+    /**
+     * Begin a new array.
+     *
+     * @since 26.10.17
+     */
+    void beginArray();
+
+    /**
+     * End the current array.
+     *
+     * @since 26.10.17
+     */
+    void endArray();
+
+    /**
+     * Name the next value of the current object.
+     *
+     * @param name The field name
+     * @since 26.10.17
+     */
+    void field(final String name);
+
+    /**
+     * Receive a null value.
+     *
+     * @since 26.10.17
+     */
+    void nullValue();
+
+    /**
+     * Receive a string value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final String value);
+
+    /**
+     * Receive a boolean value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final boolean value);
+
+    /**
+     * Receive a short value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final short value);
+
+    /**
+     * Receive an integer value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final int value);
+
+    /**
+     * Receive a long value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final long value);
+
+    /**
+     * Receive a float value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final float value);
+
+    /**
+     * Receive a double value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final double value);
+
+    /**
+     * Receive a big integer value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final BigInteger value);
+
+    /**
+     * Receive a big decimal value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final BigDecimal value);
+
+    /**
+     * Receive a binary value.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final byte[] value);
+
+    /**
+     * Receive a binary value as a stream, to be read before this
+     * method returns. The stream is closed by the caller. By default,
+     * the stream is read fully and sent to {@link #value(byte[])}.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    default void value(final InputStream value) {
+        this.value(ValueStreams.readBytes(value));
+    }
+
+    /**
+     * Receive a text value as a reader, to be read before this
+     * method returns. The reader is closed by the caller. By default,
+     * the reader is read fully and sent to {@link #value(String)}.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    default void value(final Reader value) {
+        this.value(ValueStreams.readText(value));
+    }
+
+    /**
+     * Receive a JSON node. Only used for values already held as
+     * JSON nodes and for converters working on JSON nodes.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    void value(final JsonNode value);
+
+    /**
+     * Receive a pre-serialized JSON value, which has not been parsed.
+     * By default, the value is parsed and its tokens are sent to the
+     * other methods of the sink, as if it had been rendered.
+     *
+     * @param value The value
+     * @since 26.10.17
+     */
+    default void value(final RawJson value) {
+        SinkSupport.copyTokens(value, this);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zero_x_baadf00d.partialize.sink;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.zero_x_baadf00d.partialize.RawJson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Helpers backing the default methods of {@link PartialSink}. They
+ * turn raw JSON values into calls to the primitive methods of the
+ * sink.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+final class SinkSupport {
+
+    /**
+     * Factory of the parsers reading raw JSON values.
+     *
+     * @since 26.10.17
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Build a new instance.
+     *
+     * @since 26.10.17
+     */
+    private SinkSupport() {
+    }
+
+    /**
+     * Send the tokens of the given raw JSON value to the given sink.
+     *
+     * @param rawJson The raw JSON value
+     * @param sink    The sink
+     * @since 26.10.17
+     */
+    static void copyTokens(final RawJson rawJson, final PartialSink sink) {
+        try (JsonParser parser = SinkSupport.JSON_FACTORY.createParser(rawJson.toString())) {
+            JsonToken token = parser.nextToken();
+            while (token != null) {
+                SinkSupport.copyToken(parser, token, sink);
+                token = parser.nextToken();
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Send the current token of the given parser to the given sink.
+     *
+     * @param parser The parser
+     * @param token  The current token
+     * @param sink   The sink
+     * @throws IOException If the token can't be read
+     * @since 26.10.17
+     */
+    private static void copyToken(final JsonParser parser, final JsonToken token, final PartialSink sink) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                sink.beginObject();
+                break;
+            case END_OBJECT:
+                sink.endObject();
+                break;
+            case START_ARRAY:
+                sink.beginArray();
+                break;
+            case END_ARRAY:
+                sink.endArray();
+                break;
+            case FIELD_NAME:
+                sink.field(parser.getCurrentName());
+                break;
+            case VALUE_STRING:
+                sink.value(parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.INT) {
+                    sink.value(parser.getIntValue());
+                } else if (parser.getNumberType() == JsonParser.NumberType.LONG) {
+                    sink.value(parser.getLongValue());
+                } else {
+                    sink.value(parser.getBigIntegerValue());
+                }
+                break;
+            case VALUE_NUMBER_FLOAT:
+                sink.value(parser.getDecimalValue());
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                sink.value(parser.getBooleanValue());
+                break;
+            default:
+                sink.nullValue();
+                break;
+        }
+    }
+}
@@ -2,9 +2,15 @@ module com.zero_x_baadf00d.partialize {
     requires com.fasterxml.jackson.databind;
     requires org.apache.commons.lang3;
     requires org.apache.commons.text;
+    requires static com.fasterxml.jackson.dataformat.cbor;
+    requires static com.fasterxml.jackson.dataformat.smile;
 
+    exports com.zero_x_baadf00d.partialize.accessor;
     exports com.zero_x_baadf00d.partialize.annotation;
     exports com.zero_x_baadf00d.partialize.converter;
     exports com.zero_x_baadf00d.partialize.policy;
+    exports com.zero_x_baadf00d.partialize.sink;
     exports com.zero_x_baadf00d.partialize;
+
+    uses com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors;
 }
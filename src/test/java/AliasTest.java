@@ -37,7 +37,7 @@ import java.util.List;
  * AliasTest.
  *
  * @author Thibault Meyer
- * @version 20.12.14
+ * @version 26.10.17
  * @since 16.03.10
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -110,6 +110,53 @@ public class AliasTest {
         Assert.assertNotNull(result.get("pojos"));
     }
 
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void aliasTest004() {
+        final AliasPojo aliasPojo = new AliasPojo();
+        final String fields = "*";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialObject(fields, AliasPojo.class, aliasPojo);
+
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.has("number"));
+        Assert.assertFalse(result.has("myNumber"));
+
+        partialize.setAliases(new HashMap<>() {{
+            put("myNumber", "number");
+        }});
+        final JsonNode resultWithAliases = partialize.buildPartialObject(fields, AliasPojo.class, aliasPojo);
+
+        Assert.assertNotNull(resultWithAliases);
+        Assert.assertFalse(resultWithAliases.has("number"));
+        Assert.assertEquals(42, resultWithAliases.get("myNumber").asInt());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void aliasTest005() {
+        final AliasPojo aliasPojo = new AliasPojo();
+        final com.zero_x_baadf00d.partialize.Partialize plain = new com.zero_x_baadf00d.partialize.Partialize();
+        final com.zero_x_baadf00d.partialize.Partialize aliased = new com.zero_x_baadf00d.partialize.Partialize();
+        aliased.setAliases(new HashMap<>() {{
+            put("myNumber", "number");
+        }});
+        final com.zero_x_baadf00d.partialize.Partialize sameAliases = new com.zero_x_baadf00d.partialize.Partialize();
+        sameAliases.setAliases(new HashMap<>() {{
+            put("myNumber", "number");
+        }});
+
+        Assert.assertTrue(plain.buildPartialObject("*", AliasPojo.class, aliasPojo).has("number"));
+        Assert.assertTrue(aliased.buildPartialObject("*", AliasPojo.class, aliasPojo).has("myNumber"));
+        Assert.assertTrue(sameAliases.buildPartialObject("*", AliasPojo.class, aliasPojo).has("myNumber"));
+        Assert.assertFalse(plain.buildPartialObject("*", AliasPojo.class, aliasPojo).has("myNumber"));
+    }
+
     /**
      * Simple pojo.
      *
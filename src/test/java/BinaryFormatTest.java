@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zero_x_baadf00d.partialize.OutputFormat;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BinaryFormatTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class BinaryFormatTest {
+
+    /**
+     * Build a list of objects to render.
+     *
+     * @return A list of objects
+     * @since 26.10.17
+     */
+    private List<Pojo> createPojos() {
+        final List<Pojo> pojos = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            pojos.add(new Pojo(i));
+        }
+        return pojos;
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void binaryFormatTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setOutputFormat(OutputFormat.SMILE);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        partialize.writePartial("id,status", Pojo.class, this.createPojos(), outputStream);
+        final JsonNode result = new ObjectMapper(new SmileFactory()).readTree(outputStream.toByteArray());
+
+        Assert.assertEquals(':', outputStream.toByteArray()[0]);
+        Assert.assertEquals(partialize.buildPartialObject("id,status", Pojo.class, this.createPojos()), result);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void binaryFormatTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setOutputFormat(OutputFormat.CBOR);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        partialize.writePartial("id,status", Pojo.class, this.createPojos(), outputStream);
+        final JsonNode result = new ObjectMapper(new CBORFactory()).readTree(outputStream.toByteArray());
+
+        Assert.assertEquals(partialize.buildPartialObject("id,status", Pojo.class, this.createPojos()), result);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(expected = IllegalStateException.class)
+    public void binaryFormatTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setOutputFormat(OutputFormat.SMILE);
+
+        partialize.writePartial("id", Pojo.class, new Pojo(1), new StringWriter());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void binaryFormatTest004() throws Exception {
+        final List<URL> classPath = new ArrayList<>();
+        for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.contains("jackson-dataformat-smile")) {
+                classPath.add(new File(entry).toURI().toURL());
+            }
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(classPath.toArray(new URL[0]), ClassLoader.getPlatformClassLoader())) {
+            final Class<?> partializeClass = classLoader.loadClass("com.zero_x_baadf00d.partialize.Partialize");
+            final Class<?> outputFormatClass = classLoader.loadClass("com.zero_x_baadf00d.partialize.OutputFormat");
+            final Object partialize = partializeClass.getConstructor().newInstance();
+            final Method setOutputFormat = partializeClass.getMethod("setOutputFormat", outputFormatClass);
+
+            setOutputFormat.invoke(partialize, outputFormatClass.getField("CBOR").get(null));
+            for (int i = 0; i < 2; ++i) {
+                try {
+                    setOutputFormat.invoke(partialize, outputFormatClass.getField("SMILE").get(null));
+                    Assert.fail("Missing Smile module not detected");
+                } catch (final InvocationTargetException ex) {
+                    Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+                    Assert.assertTrue(ex.getCause().getMessage().contains("jackson-dataformat-smile"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "status"})
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getStatus() {
+            return this.id % 2 == 0 ? "ACTIVE" : "DISABLED";
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.zero_x_baadf00d.partialize.ByteBufferPool;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ChannelTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ChannelTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void channelTest001() throws IOException {
+        final ByteBufferPool byteBufferPool = new ByteBufferPool(16, 2, true);
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setByteBufferPool(byteBufferPool);
+        final CollectingChannel channel = new CollectingChannel();
+        final List<Pojo> pojos = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            pojos.add(new Pojo());
+        }
+
+        partialize.writePartial("name,label", Pojo.class, pojos, channel);
+
+        Assert.assertEquals(partialize.buildPartialObject("name,label", Pojo.class, pojos).toString(), channel.toString());
+        Assert.assertTrue(channel.writeCount > 1);
+        Assert.assertTrue(channel.isOpen());
+        Assert.assertEquals(1, byteBufferPool.getPooledBufferCount());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void channelTest002() {
+        final ByteBufferPool byteBufferPool = new ByteBufferPool(64, 1, false);
+
+        final ByteBuffer first = byteBufferPool.acquire();
+        final ByteBuffer second = byteBufferPool.acquire();
+        first.put((byte) 42);
+        byteBufferPool.release(first);
+        byteBufferPool.release(second);
+        byteBufferPool.release(ByteBuffer.allocate(32));
+
+        Assert.assertEquals(1, byteBufferPool.getPooledBufferCount());
+        final ByteBuffer reused = byteBufferPool.acquire();
+        Assert.assertSame(first, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(64, reused.remaining());
+    }
+
+    /**
+     * Channel collecting written bytes, at most 7 bytes per write.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    private static final class CollectingChannel implements WritableByteChannel {
+
+        /**
+         * @since 26.10.17
+         */
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        /**
+         * @since 26.10.17
+         */
+        private int writeCount;
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int length = Math.min(7, src.remaining());
+            for (int i = 0; i < length; ++i) {
+                this.bytes.write(src.get());
+            }
+            this.writeCount += 1;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            Assert.fail("Channel must not be closed");
+        }
+
+        @Override
+        public String toString() {
+            return new String(this.bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"name", "label"})
+    public static class Pojo {
+
+        public String getName() {
+            return "Stéphane";
+        }
+
+        public String getLabel() {
+            return "€ 42";
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ColumnarTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ColumnarTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void columnarTest001() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Pojo> pojos = Arrays.asList(new Pojo(1), null, new Pojo(2));
+
+        final JsonNode result = partialize.buildPartialColumns("id,name,tags", Pojo.class, pojos);
+
+        Assert.assertEquals(
+            "{\"columns\":[\"id\",\"name\",\"tags\"],\"rows\":[[1,\"Pojo #1\",[\"odd\"]],null,[2,null,[\"even\"]]]}",
+            result.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void columnarTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setAccessPolicy(accessPolicy -> !accessPolicy.field.equals("name") || ((Pojo) accessPolicy.instance).getId() > 1);
+
+        final JsonNode result = partialize.buildPartialColumns("child(id),name", Pojo.class, Arrays.asList(new Pojo(1), new Pojo(3)));
+
+        Assert.assertEquals(
+            "{\"columns\":[\"child\",\"name\"],\"rows\":[[{\"id\":2},null],[{\"id\":4},\"Pojo #3\"]]}",
+            result.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void columnarTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final FieldQuery fieldQuery = com.zero_x_baadf00d.partialize.Partialize.compile("*,-child");
+        final List<Pojo> pojos = Arrays.asList(new Pojo(1), new Pojo(2), new Pojo(3));
+        final StringWriter writer = new StringWriter();
+
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            partialize.writeColumns(fieldQuery, Pojo.class, pojos, generator);
+        }
+
+        Assert.assertEquals(partialize.buildColumns(fieldQuery, Pojo.class, pojos).toString(), writer.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void columnarTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setExceptionCallback(ex -> {
+        });
+
+        final JsonNode result = partialize.buildPartialColumns("id,(", Pojo.class, Collections.singletonList(new Pojo(1)));
+
+        Assert.assertEquals("{}", result.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void columnarTest005() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Exception> exceptions = new ArrayList<>();
+        partialize.setExceptionCallback(exceptions::add);
+
+        final JsonNode result = partialize.buildPartialColumns("id", String.class, Arrays.asList("a", "b"));
+
+        Assert.assertEquals("{}", result.toString());
+        Assert.assertEquals(1, exceptions.size());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "name", "tags", "child"})
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return this.id % 2 == 0 ? null : "Pojo #" + this.id;
+        }
+
+        public List<String> getTags() {
+            return Collections.singletonList(this.id % 2 == 0 ? "even" : "odd");
+        }
+
+        public Pojo getChild() {
+            return new Pojo(this.id + 1);
+        }
+    }
+}
@@ -22,6 +22,7 @@
  * SOFTWARE.
  */
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.zero_x_baadf00d.partialize.PartializeConverterManager;
 import com.zero_x_baadf00d.partialize.converter.Converter;
 import converters.BigDecimalConverter;
@@ -35,13 +36,16 @@ import org.junit.runners.MethodSorters;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ConverterManagerTest.
  *
  * @author Thibault Meyer
- * @version 20.12.14
+ * @version 26.10.17
  * @since 16.10.04
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -128,4 +132,26 @@ public class ConverterManagerTest {
     public void converterManager004() {
         Assert.assertEquals(0, PartializeConverterManager.getInstance().count());
     }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void converterManager005() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Exception> exceptions = new ArrayList<>();
+        partialize.setExceptionCallback(exceptions::add);
+        final Map<String, Object> map = new HashMap<>();
+        map.put("date", new DateTime(2016, 10, 4, 12, 30, 0));
+        map.put("dates", Collections.singletonList(new DateTime(2016, 10, 4, 12, 30, 0)));
+
+        final JsonNode resultBefore = partialize.buildPartialObject("date,dates", Map.class, map);
+        PartializeConverterManager.getInstance().registerConverter(new JodaDateTimeConverter());
+        final JsonNode resultAfter = partialize.buildPartialObject("date,dates", Map.class, map);
+
+        Assert.assertEquals(2, exceptions.size());
+        Assert.assertTrue(resultBefore.get("date").isObject());
+        Assert.assertEquals("2016-10-04T12:30:00", resultAfter.get("date").asText());
+        Assert.assertEquals("2016-10-04T12:30:00", resultAfter.get("dates").get(0).asText());
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.zero_x_baadf00d.partialize.DelimitedFormat;
+import com.zero_x_baadf00d.partialize.PartializeConverterManager;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import converters.JodaDateTimeConverter;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DelimitedTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DelimitedTest {
+
+    /**
+     * Initialize converters.
+     *
+     * @since 26.10.17
+     */
+    @Before
+    public void initializeConverters() {
+        PartializeConverterManager.getInstance().registerConverter(new JodaDateTimeConverter());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void delimitedTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+        partialize.setAliases(new HashMap<>() {{
+            put("label", "name");
+        }});
+        partialize.setAccessPolicy(accessPolicy -> !accessPolicy.field.equals("name") || ((Pojo) accessPolicy.instance).getId() != 3);
+
+        partialize.writePartialDelimited(
+            "id,label,createdAt",
+            Pojo.class,
+            Arrays.asList(new Pojo(1), null, new Pojo(2), new Pojo(3)),
+            DelimitedFormat.CSV,
+            writer
+        );
+
+        Assert.assertEquals(
+            "id,label,createdAt\r\n"
+                + "1,\"Pojo \"\"1\"\", first\",2016-01-01T12:00:00\r\n"
+                + "2,\"Line\nbreak\",2016-01-02T12:00:00\r\n"
+                + "3,,2016-01-03T12:00:00\r\n",
+            writer.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void delimitedTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+
+        partialize.writeDelimited(
+            com.zero_x_baadf00d.partialize.Partialize.compile("name,tags,attributes"),
+            Pojo.class,
+            Arrays.asList(new Pojo(1), new Pojo(2)),
+            DelimitedFormat.TSV,
+            writer
+        );
+
+        Assert.assertEquals(
+            "name\ttags\tattributes\n"
+                + "Pojo \"1\", first\t[\"a\\\\tb\",null]\t{\"key\":1}\n"
+                + "Line\\nbreak\t[\"a\\\\\\\\tb\",null]\t{\"key\":2}\n",
+            writer.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void delimitedTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+
+        partialize.writePartialDelimited("id", Pojo.class, Collections.emptyList(), DelimitedFormat.CSV, writer);
+
+        Assert.assertEquals("id\r\n", writer.toString());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "name", "createdAt", "tags", "attributes"})
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return this.id % 2 == 0 ? "Line\nbreak" : "Pojo \"" + this.id + "\", first";
+        }
+
+        public DateTime getCreatedAt() {
+            return new DateTime(2016, 1, this.id, 12, 0, 0);
+        }
+
+        public List<String> getTags() {
+            return Arrays.asList(this.id % 2 == 0 ? "a\\tb" : "a\tb", null);
+        }
+
+        public Map<String, Object> getAttributes() {
+            return Collections.singletonMap("key", this.id);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.zero_x_baadf00d.partialize.Partialize;
+import com.zero_x_baadf00d.partialize.PartializeConverterManager;
+import converters.JodaDateTimeConverter;
+import org.junit.Assert;
+import org.junit.rules.ExternalResource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DifferentialRendering. Renders the same queries as a tree and through
+ * another output, each with its own exception callback, and asserts both
+ * produce the same document and report the same exceptions.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+public class DifferentialRendering extends ExternalResource {
+
+    @Override
+    protected void before() {
+        PartializeConverterManager.getInstance().registerConverter(new JodaDateTimeConverter());
+    }
+
+    /**
+     * Render the usual queries on {@link StreamingTest.Pojo} with both paths.
+     *
+     * @param renderer The output under test
+     * @throws IOException If the rendering fails
+     * @since 26.10.17
+     */
+    public void assertMatchesTree(final Renderer renderer) throws IOException {
+        this.assertSameRendering(null, new StreamingTest.Pojo(), renderer);
+        this.assertSameRendering("*", new StreamingTest.Pojo(), renderer);
+        this.assertSameRendering("name,children(*,-children),attributes(*),matrix", new StreamingTest.Pojo(), renderer);
+        this.assertSameRendering("*,-node,status", Arrays.asList(new StreamingTest.Pojo(), new StreamingTest.Pojo()), renderer);
+        this.assertSameRendering("(", new StreamingTest.Pojo(), renderer);
+    }
+
+    /**
+     * Render the given query with both paths. Nodes returned by the
+     * renderer must also be equal to the tree.
+     *
+     * @param fields   The field query
+     * @param instance The instance to render
+     * @param renderer The output under test
+     * @throws IOException If the rendering fails
+     * @since 26.10.17
+     */
+    public void assertSameRendering(final String fields, final Object instance, final Renderer renderer) throws IOException {
+        final List<String> expectedExceptions = new ArrayList<>();
+        final Partialize treePartialize = new Partialize();
+        treePartialize.setExceptionCallback(ex -> expectedExceptions.add(ex.getClass().getName() + ": " + ex.getMessage()));
+        final ContainerNode<?> expected = treePartialize.buildPartialObject(fields, StreamingTest.Pojo.class, instance);
+
+        final List<String> exceptions = new ArrayList<>();
+        final Partialize partialize = new Partialize();
+        partialize.setExceptionCallback(ex -> exceptions.add(ex.getClass().getName() + ": " + ex.getMessage()));
+        final Object rendered = renderer.render(partialize, fields, instance);
+
+        if (rendered instanceof JsonNode) {
+            Assert.assertTrue(expected.equals(rendered));
+            Assert.assertTrue(rendered.equals(expected));
+            Assert.assertEquals(expected.hashCode(), rendered.hashCode());
+        }
+        Assert.assertEquals(expected.toString(), rendered.toString());
+        Assert.assertEquals(expectedExceptions, exceptions);
+    }
+
+    /**
+     * Output under test.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @FunctionalInterface
+    public interface Renderer {
+
+        /**
+         * Render the given query on {@link StreamingTest.Pojo}.
+         *
+         * @param partialize The Partialize instance to use
+         * @param fields     The field query
+         * @param instance   The instance to render
+         * @return The rendered document, or its JSON text
+         * @throws IOException If the rendering fails
+         * @since 26.10.17
+         */
+        Object render(final Partialize partialize, final String fields, final Object instance) throws IOException;
+    }
+}
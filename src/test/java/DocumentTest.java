@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.zero_x_baadf00d.partialize.PartialDocument;
+import com.zero_x_baadf00d.partialize.RawJson;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * DocumentTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DocumentTest {
+
+    /**
+     * Differential check against the tree rendering.
+     *
+     * @since 26.10.17
+     */
+    @Rule
+    public final DifferentialRendering differentialRendering = new DifferentialRendering();
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void documentTest001() throws IOException {
+        this.differentialRendering.assertMatchesTree((partialize, fields, instance) -> {
+            final PartialDocument document = partialize.buildPartialDocument(fields, StreamingTest.Pojo.class, instance);
+            final StringWriter writer = new StringWriter();
+            try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+                document.writeTo(generator);
+            }
+            Assert.assertEquals(writer.toString(), document.toString());
+            return writer.toString();
+        });
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void documentTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final PartialDocument document = partialize.buildPartialDocument("*", StreamingTest.Pojo.class, new StreamingTest.Pojo());
+        final PartialDocument.Value root = document.getRoot();
+
+        Assert.assertEquals(JsonNodeType.OBJECT, root.getNodeType());
+        Assert.assertEquals(root.getFieldNames().size(), root.size());
+        Assert.assertEquals(42, root.get("id").numberValue());
+        Assert.assertEquals("Jöhn", root.get("name").asText());
+        Assert.assertEquals("1.5", root.get("amount").asText());
+        Assert.assertTrue(root.get("enabled").booleanValue());
+        Assert.assertTrue(root.get("nickname").isNull());
+        Assert.assertEquals("ACTIVE", root.get("status").asText());
+        Assert.assertEquals("value", root.get("node").get("key").asText());
+        Assert.assertEquals(1234567890123L, root.get("attributes").get("long").numberValue());
+        Assert.assertEquals(4.2, root.get("attributes").get("double").numberValue());
+        Assert.assertEquals(JsonNodeType.ARRAY, root.get("matrix").getNodeType());
+        Assert.assertEquals(2, root.get("matrix").size());
+        Assert.assertEquals(4, root.get("matrix").get(1).get(1).numberValue());
+        Assert.assertNull(root.get("matrix").get(2));
+        Assert.assertNull(root.get("unknown"));
+        Assert.assertNull(root.get(0));
+        Assert.assertEquals("[[1,2],[3,4]]", root.get("matrix").toString());
+        Assert.assertTrue(root.get("children").get(1).isNull());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void documentTest003() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final PartialDocument document = partialize.buildPartialDocument("*", Pojo.class, new Pojo());
+        final PartialDocument.Value root = document.getRoot();
+
+        Assert.assertEquals(partialize.buildPartialObject("*", Pojo.class, new Pojo()).toString(), document.toString());
+        Assert.assertEquals(new BigInteger("123456789012345678901234567890"), root.get("big").numberValue());
+        Assert.assertEquals(-7, root.get("negative").numberValue());
+        Assert.assertEquals(0.5f, root.get("ratio").numberValue());
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, root.get("data").binaryValue());
+        Assert.assertEquals(JsonNodeType.POJO, root.get("raw").getNodeType());
+        Assert.assertEquals("{\"a\":[1,true]}", root.get("raw").toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void documentTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo[] items = new Pojo[1000];
+        Arrays.fill(items, new Pojo());
+
+        final PartialDocument document = partialize.buildPartialDocument("negative,ratio", Pojo.class, Arrays.asList(items));
+
+        Assert.assertEquals(1000, document.getRoot().size());
+        Assert.assertEquals(2 + 1000 * 6, document.getTapeLength());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"big", "negative", "ratio", "data", "raw"},
+        defaultFields = {"negative"}
+    )
+    public static class Pojo {
+
+        public BigInteger getBig() {
+            return new BigInteger("123456789012345678901234567890");
+        }
+
+        public int getNegative() {
+            return -7;
+        }
+
+        public float getRatio() {
+            return 0.5f;
+        }
+
+        public byte[] getData() {
+            return new byte[]{1, 2, 3};
+        }
+
+        public RawJson getRaw() {
+            return RawJson.of("{\"a\":[1,true]}");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * EnumTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class EnumTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void enumTest001() {
+        final String fields = "status,priority,statuses";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialObject(fields, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.get("status").isTextual());
+        Assert.assertEquals("ACTIVE", result.get("status").asText());
+        Assert.assertTrue(result.get("priority").isInt());
+        Assert.assertEquals(10, result.get("priority").asInt());
+        Assert.assertEquals(3, result.get("statuses").size());
+        Assert.assertEquals("ACTIVE", result.get("statuses").get(0).asText());
+        Assert.assertEquals("disabled", result.get("statuses").get(1).asText());
+        Assert.assertTrue(result.get("statuses").get(2).isNull());
+    }
+
+    /**
+     * Status.
+     *
+     * @since 26.10.17
+     */
+    public enum Status {
+        ACTIVE,
+        DISABLED {
+            @Override
+            public String toString() {
+                return "disabled";
+            }
+        }
+    }
+
+    /**
+     * Priority.
+     *
+     * @since 26.10.17
+     */
+    public enum Priority {
+        LOW("1"),
+        HIGH("10");
+
+        private final String value;
+
+        Priority(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return this.value;
+        }
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"status", "priority", "statuses"})
+    public static class Pojo {
+
+        public Status getStatus() {
+            return Status.ACTIVE;
+        }
+
+        public Priority getPriority() {
+            return Priority.HIGH;
+        }
+
+        public List<Status> getStatuses() {
+            return Arrays.asList(Status.ACTIVE, Status.DISABLED, null);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * EnvelopeTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class EnvelopeTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void envelopeTest001() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ObjectNode envelope = JsonNodeFactory.instance.objectNode();
+        envelope.put("status", "ok");
+
+        final ObjectNode result = partialize.buildPartialObject("id,amount", Pojo.class, new Pojo(1), envelope.putObject("data"));
+
+        Assert.assertSame(envelope.get("data"), result);
+        Assert.assertEquals("{\"status\":\"ok\",\"data\":{\"id\":1,\"amount\":1.5}}", envelope.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void envelopeTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ArrayNode items = JsonNodeFactory.instance.arrayNode();
+        items.add("first");
+
+        partialize.buildPartialObject("id", Pojo.class, Arrays.asList(new Pojo(1), new Pojo(2)), items);
+        partialize.build(com.zero_x_baadf00d.partialize.Partialize.compile("id"), Pojo.class, new Pojo(3), items);
+
+        Assert.assertEquals("[\"first\",{\"id\":1},{\"id\":2},{\"id\":3}]", items.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void envelopeTest003() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        partialize.buildPartialObject("id", Pojo.class, Arrays.asList(new Pojo(1), new Pojo(2)), JsonNodeFactory.instance.objectNode());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void envelopeTest004() throws IOException {
+        final JsonNodeFactory nodeFactory = JsonNodeFactory.withExactBigDecimals(true);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setNodeFactory(nodeFactory);
+        final com.zero_x_baadf00d.partialize.Partialize partializeWithFactory = new com.zero_x_baadf00d.partialize.Partialize(8, nodeFactory);
+        final com.zero_x_baadf00d.partialize.Partialize partializeWithMapper = new com.zero_x_baadf00d.partialize.Partialize(8, objectMapper);
+        final StringWriter writer = new StringWriter();
+        final StringWriter writerWithFactory = new StringWriter();
+
+        partializeWithMapper.writePartial("amount", Pojo.class, new Pojo(1), writer);
+        partializeWithFactory.writePartial("amount", Pojo.class, new Pojo(1), writerWithFactory);
+
+        Assert.assertEquals("{\"amount\":1.50}", partializeWithFactory.buildPartialObject("amount", Pojo.class, new Pojo(1)).toString());
+        Assert.assertEquals("{\"amount\":1.50}", partializeWithMapper.buildPartialObject("amount", Pojo.class, new Pojo(1)).toString());
+        Assert.assertEquals("{\"amount\":1.50}", writer.toString());
+        Assert.assertEquals("{\"amount\":1.50}", writerWithFactory.toString());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "amount"})
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public BigDecimal getAmount() {
+            return new BigDecimal("1.50");
+        }
+    }
+}
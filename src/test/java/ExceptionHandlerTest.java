@@ -35,7 +35,7 @@ import java.util.concurrent.atomic.AtomicReference;
  * ExceptionHandlerTest.
  *
  * @author Thibault Meyer
- * @version 22.01.29
+ * @version 26.10.17
  * @since 22.01.29
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -88,14 +88,33 @@ public class ExceptionHandlerTest {
         partialize.buildPartialObject(fields, Pojo.class, new Pojo());
     }
 
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void exceptionHandler004() {
+        final String fields = "firstName,active";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final AtomicReference<String> atomicString = new AtomicReference<>(null);
+        partialize.setExceptionCallback(exception -> atomicString.set(exception.getMessage()));
+
+        final JsonNode result = partialize.buildPartialObject(fields, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.get("active").asBoolean());
+
+        // Because "isActive" is resolved without probing "getActive"
+        Assert.assertNull(atomicString.get());
+    }
+
     /**
      * Pojo.
      *
      * @author Thibault Meyer
-     * @version 20.12.14
+     * @version 26.10.17
      * @since 16.10.04
      */
-    @Partialize(allowedFields = {"firstName", "password", "subPojo"})
+    @Partialize(allowedFields = {"firstName", "password", "subPojo", "active"})
     public static class Pojo {
 
         private final String firstName;
@@ -116,6 +135,10 @@ public class ExceptionHandlerTest {
             return subPojo;
         }
 
+        public boolean isActive() {
+            return true;
+        }
+
         private String getPassword() {
             return this.password;
         }
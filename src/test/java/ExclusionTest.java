@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ExclusionTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ExclusionTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void exclusionTest001() {
+        final String fields = "*,-secret";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialObject(fields, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(3, result.size());
+        Assert.assertTrue(result.has("id"));
+        Assert.assertTrue(result.has("name"));
+        Assert.assertTrue(result.has("email"));
+        Assert.assertFalse(result.has("secret"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void exclusionTest002() {
+        final String fields = "-NAME";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialObject(fields, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(1, result.size());
+        Assert.assertTrue(result.has("id"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void exclusionTest003() {
+        final String fields = "secret,*,-identifier";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setAliases(new HashMap<>() {{
+            put("identifier", "id");
+        }});
+
+        final JsonNode result = partialize.buildPartialObject(fields, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("secret", result.fieldNames().next());
+        Assert.assertFalse(result.has("identifier"));
+        Assert.assertFalse(result.has("id"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void exclusionTest004() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", 1);
+        map.put("name", "John");
+        map.put("password", "s3cr3t");
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode wildcardResult = partialize.buildPartialObject("*,-password", Map.class, map);
+        final JsonNode defaultResult = partialize.buildPartialObject("-password,-id", Map.class, map);
+
+        Assert.assertEquals(2, wildcardResult.size());
+        Assert.assertFalse(wildcardResult.has("password"));
+        Assert.assertEquals(1, defaultResult.size());
+        Assert.assertEquals("John", defaultResult.get("name").asText());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "name", "email", "secret"}, defaultFields = {"id", "name"})
+    public static class Pojo {
+
+        public int getId() {
+            return 42;
+        }
+
+        public String getName() {
+            return "John";
+        }
+
+        public String getEmail() {
+            return "john@domain.local";
+        }
+
+        public String getSecret() {
+            return "s3cr3t";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.FieldQueryException;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FieldQueryParserTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FieldQueryParserTest {
+
+    /**
+     * Characters used to generate random queries.
+     *
+     * @since 26.10.17
+     */
+    private static final char[] FUZZ_ALPHABET = {'a', 'b', 'c', ',', '(', ')', '*', ' '};
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryParserTest001() {
+        final FieldQuery fieldQuery = FieldQuery.compile(" id , name ,posts( title , author(name) ) ,*");
+
+        Assert.assertEquals("id,name,posts(title,author(name)),*", fieldQuery.toString());
+        Assert.assertEquals(fieldQuery, FieldQuery.compile("id,name,posts(title,author(name)),*"));
+        Assert.assertEquals("a,b", FieldQuery.compile(",a,,b,").toString());
+        Assert.assertSame(FieldQuery.EMPTY, FieldQuery.compile(" , ,"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryParserTest002() {
+        this.assertMalformed("a(b", 1);
+        this.assertMalformed("a)b", 1);
+        this.assertMalformed("a(b))", 4);
+        this.assertMalformed("(b)", 0);
+        this.assertMalformed("a()", 1);
+        this.assertMalformed("a(b)c", 4);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(timeout = 1000)
+    public void fieldQueryParserTest003() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4000; ++i) {
+            sb.append("a(");
+        }
+        try {
+            FieldQuery.compile(sb.toString());
+            Assert.fail("Deeply nested query must be rejected");
+        } catch (final FieldQueryException ignore) {
+        }
+
+        sb.setLength(0);
+        for (int i = 0; i < 20000; ++i) {
+            sb.append("a,");
+        }
+        try {
+            FieldQuery.compile(sb.toString());
+            Assert.fail("Huge query must be rejected");
+        } catch (final FieldQueryException ignore) {
+        }
+
+        sb.setLength(0);
+        for (int i = 0; i < 32; ++i) {
+            sb.append("a(");
+        }
+        sb.append('b');
+        for (int i = 0; i < 32; ++i) {
+            sb.append(')');
+        }
+        Assert.assertEquals(sb.toString(), FieldQuery.compile(sb.toString()).toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(timeout = 5000)
+    public void fieldQueryParserTest004() {
+        final Random random = new Random(42);
+        final char[] buffer = new char[256];
+        for (int i = 0; i < 50000; ++i) {
+            final int length = random.nextInt(buffer.length);
+            for (int j = 0; j < length; ++j) {
+                buffer[j] = FieldQueryParserTest.FUZZ_ALPHABET[random.nextInt(FieldQueryParserTest.FUZZ_ALPHABET.length)];
+            }
+            final String query = new String(buffer, 0, length);
+            try {
+                final FieldQuery fieldQuery = FieldQuery.compile(query);
+                Assert.assertEquals(fieldQuery, FieldQuery.compile(fieldQuery.toString()));
+            } catch (final FieldQueryException ex) {
+                Assert.assertTrue(ex.getPosition() >= 0);
+                Assert.assertTrue(ex.getPosition() <= length);
+            }
+        }
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryParserTest005() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final AtomicReference<Exception> atomicException = new AtomicReference<>(null);
+        partialize.setExceptionCallback(atomicException::set);
+
+        partialize.buildPartialObject("key(", HashMap.class, new HashMap<>());
+
+        Assert.assertTrue(atomicException.get() instanceof FieldQueryException);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryParserTest006() {
+        final FieldQuery fieldQuery = FieldQuery.compile("*, - secret ,name(-id)");
+
+        Assert.assertEquals("*,-secret,name(-id)", fieldQuery.toString());
+        Assert.assertTrue(fieldQuery.getFields().get(1).isExcluded());
+        Assert.assertFalse(fieldQuery.getFields().get(1).isWildcard());
+        Assert.assertEquals("secret", fieldQuery.getFields().get(1).getName());
+        Assert.assertEquals("first-name", FieldQuery.compile("first-name").getFields().get(0).getName());
+        this.assertMalformed("a,-", 2);
+        this.assertMalformed("-a(b)", 2);
+        this.assertMalformed("a,-*", 2);
+    }
+
+    /**
+     * Check that the given query is rejected at the given position.
+     *
+     * @param query    The malformed query
+     * @param position The expected error position
+     * @since 26.10.17
+     */
+    private void assertMalformed(final String query, final int position) {
+        try {
+            FieldQuery.compile(query);
+            Assert.fail("Query '" + query + "' must be rejected");
+        } catch (final FieldQueryException ex) {
+            Assert.assertEquals(position, ex.getPosition());
+        }
+    }
+}
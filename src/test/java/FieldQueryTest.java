@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FieldQueryTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FieldQueryTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryTest001() {
+        final FieldQuery fieldQuery = Partialize.compile("id,name,posts(title,author(name)),*");
+
+        Assert.assertNotNull(fieldQuery);
+        Assert.assertSame(fieldQuery, Partialize.compile("id,name,posts(title,author(name)),*"));
+        Assert.assertEquals(4, fieldQuery.getFields().size());
+        Assert.assertEquals("id", fieldQuery.getFields().get(0).getName());
+        Assert.assertNull(fieldQuery.getFields().get(0).getArgs());
+        Assert.assertEquals("posts", fieldQuery.getFields().get(2).getName());
+        Assert.assertEquals(2, fieldQuery.getFields().get(2).getArgs().getFields().size());
+        Assert.assertEquals("name", fieldQuery.getFields().get(2).getArgs().getFields().get(1).getArgs().getFields().get(0).getName());
+        Assert.assertTrue(fieldQuery.getFields().get(3).isWildcard());
+        Assert.assertEquals("id,name,posts(title,author(name)),*", fieldQuery.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryTest002() {
+        Assert.assertSame(FieldQuery.EMPTY, Partialize.compile(null));
+        Assert.assertSame(FieldQuery.EMPTY, Partialize.compile(""));
+        Assert.assertTrue(FieldQuery.EMPTY.isEmpty());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryTest003() {
+        final List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            final Map<String, Object> map = new HashMap<>();
+            map.put("id", i);
+            map.put("name", "item-" + i);
+            map.put("sub", new HashMap<String, Object>() {{
+                put("key", "value");
+                put("hidden", "secret");
+            }});
+            list.add(map);
+        }
+        final FieldQuery fieldQuery = Partialize.compile("id,sub(key)");
+        final Partialize partialize = new Partialize();
+
+        final JsonNode result = partialize.build(fieldQuery, List.class, list);
+
+        Assert.assertNotNull(result);
+        Assert.assertTrue(result.isArray());
+        Assert.assertEquals(16, result.size());
+        Assert.assertEquals(15, result.get(15).get("id").asInt());
+        Assert.assertFalse(result.get(15).has("name"));
+        Assert.assertEquals("value", result.get(15).get("sub").get("key").asText());
+        Assert.assertFalse(result.get(15).get("sub").has("hidden"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void fieldQueryTest004() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; ++t) {
+            final int offset = t;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 2000; ++i) {
+                    final String fields = "id,field" + (i % 700) + "(sub" + offset + ")";
+                    if (!fields.equals(Partialize.compile(fields).toString())) {
+                        failures.add(new AssertionError(fields));
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        final FieldQuery fieldQuery = Partialize.compile("id,name");
+        Assert.assertSame(fieldQuery, Partialize.compile("id,name"));
+    }
+}
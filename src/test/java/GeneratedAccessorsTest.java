@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.accessor.GeneratedAccessors;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GeneratedAccessorsTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class GeneratedAccessorsTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void generatedAccessorsTest001() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setExceptionCallback(ex -> Assert.fail(ex.getMessage()));
+        final int reads = PojoAccessors.READS.get();
+
+        final JsonNode result = partialize.buildPartialObject("name,secret,version", Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals("John", result.get("name").asText());
+        Assert.assertEquals("s3cr3t", result.get("secret").asText());
+        Assert.assertEquals(42, result.get("version").asInt());
+        Assert.assertEquals(reads + 3, PojoAccessors.READS.get());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void generatedAccessorsTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialObject(null, Pojo.class, new Pojo());
+
+        Assert.assertNotNull(result);
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("John", result.get("name").asText());
+    }
+
+    /**
+     * Pojo, with getters the annotation processor accepts.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"name", "secret", "version"}, defaultFields = {"name"})
+    public static class Pojo {
+
+        /**
+         * @since 26.10.17
+         */
+        public static int getVersion() {
+            return 42;
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        public String getName() {
+            return "John";
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        public String getSecret() {
+            return "s3cr3t";
+        }
+    }
+
+    /**
+     * Accessors of {@code Pojo}, as generated by the annotation processor.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static final class PojoAccessors implements GeneratedAccessors<Pojo> {
+
+        /**
+         * Number of values read, to check these accessors are used
+         * instead of reflection.
+         *
+         * @since 26.10.17
+         */
+        static final AtomicInteger READS = new AtomicInteger();
+
+        /**
+         * @since 26.10.17
+         */
+        @Override
+        public Class<Pojo> getManagedObjectClass() {
+            return Pojo.class;
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        @Override
+        public String[] getAllowedFields() {
+            return new String[]{"name", "secret", "version"};
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        @Override
+        public String[] getDefaultFields() {
+            return new String[]{"name"};
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        @Override
+        public boolean isStatic(final int fieldIndex) {
+            return fieldIndex == 2;
+        }
+
+        /**
+         * @since 26.10.17
+         */
+        @Override
+        public Object getValue(final int fieldIndex, final Pojo instance) {
+            PojoAccessors.READS.incrementAndGet();
+            switch (fieldIndex) {
+                case 0:
+                    return instance.getName();
+                case 1:
+                    return instance.getSecret();
+                case 2:
+                    return Pojo.getVersion();
+                default:
+                    throw new IndexOutOfBoundsException("Field index: " + fieldIndex);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LazyViewTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LazyViewTest {
+
+    /**
+     * Differential check against the tree rendering.
+     *
+     * @since 26.10.17
+     */
+    @Rule
+    public final DifferentialRendering differentialRendering = new DifferentialRendering();
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void lazyViewTest001() throws IOException {
+        this.differentialRendering.assertMatchesTree(
+            (partialize, fields, instance) -> partialize.buildPartialView(fields, StreamingTest.Pojo.class, instance)
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void lazyViewTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo pojo = new Pojo("root", new Pojo("child", null));
+
+        final JsonNode view = partialize.buildPartialView("name,label,child(name,label)", Pojo.class, pojo);
+        Assert.assertTrue(pojo.calls.isEmpty());
+
+        Assert.assertEquals("root", view.get("name").asText());
+        Assert.assertEquals("root", view.path("name").asText());
+        Assert.assertEquals(Arrays.asList("name"), pojo.calls);
+
+        Assert.assertEquals("child", view.at("/child/name").asText());
+        Assert.assertEquals(Arrays.asList("name", "child"), pojo.calls);
+        Assert.assertEquals(Arrays.asList("name"), pojo.child.calls);
+        Assert.assertTrue(view.path("unknown").isMissingNode());
+
+        Assert.assertEquals("{\"name\":\"root\",\"label\":\"ROOT\",\"child\":{\"name\":\"child\",\"label\":\"CHILD\"}}", view.toString());
+        Assert.assertEquals(Arrays.asList("name", "child", "label"), pojo.calls);
+        Assert.assertEquals(Arrays.asList("name", "label"), pojo.child.calls);
+        Assert.assertEquals(3, view.size());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void lazyViewTest003() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo first = new Pojo("first", null);
+        final Pojo second = new Pojo("second", null);
+
+        final JsonNode view = partialize.buildPartialView("label", Pojo.class, Arrays.asList(first, second));
+
+        Assert.assertEquals(2, view.size());
+        Assert.assertEquals("SECOND", view.get(1).get("label").asText());
+        Assert.assertTrue(first.calls.isEmpty());
+        Assert.assertEquals(Arrays.asList("label"), second.calls);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void lazyViewTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final ObjectNode view = (ObjectNode) partialize.buildPartialView("name", Pojo.class, new Pojo("root", null));
+
+        view.put("name", "other");
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void lazyViewTest005() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo pojo = new Pojo("root", new Pojo("child", null));
+        final ObjectNode expected = JsonNodeFactory.instance.objectNode();
+        expected.set("data", partialize.buildPartialObject("name,child(label)", Pojo.class, pojo));
+        final ObjectNode envelope = JsonNodeFactory.instance.objectNode();
+        envelope.set("data", partialize.buildPartialView("name,child(label)", Pojo.class, pojo));
+
+        Assert.assertTrue(expected.equals(envelope));
+        Assert.assertEquals(expected.hashCode(), envelope.hashCode());
+        Assert.assertNotEquals(expected, partialize.buildPartialView("name,child(name)", Pojo.class, pojo));
+        Assert.assertNotEquals(partialize.buildPartialView("name,child(name)", Pojo.class, pojo), expected.get("data"));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void lazyViewTest006() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo pojo = new Pojo("root", new Pojo("child", null));
+
+        final JsonNode view = partialize.buildPartialView("name,label,child(name)", Pojo.class, pojo);
+
+        Assert.assertTrue(view.path("unknown").isMissingNode());
+        Assert.assertFalse(view.has("other"));
+        Assert.assertTrue(pojo.calls.isEmpty());
+        Assert.assertEquals("ROOT", view.get("label").asText());
+        Assert.assertEquals(Arrays.asList("label"), pojo.calls);
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"name", "label", "child"},
+        defaultFields = {"name"}
+    )
+    public static class Pojo {
+
+        private final List<String> calls = new ArrayList<>();
+        private final String name;
+        private final Pojo child;
+
+        public Pojo(final String name, final Pojo child) {
+            this.name = name;
+            this.child = child;
+        }
+
+        public String getName() {
+            this.calls.add("name");
+            return this.name;
+        }
+
+        public String getLabel() {
+            this.calls.add("label");
+            return this.name.toUpperCase();
+        }
+
+        public Pojo getChild() {
+            this.calls.add("child");
+            return this.child;
+        }
+    }
+}
@@ -30,13 +30,14 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * MapTest.
  *
  * @author Thibault Meyer
- * @version 20.12.14
+ * @version 26.10.17
  * @since 16.12.05
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -168,4 +169,28 @@ public class MapTest {
         Assert.assertTrue(result.get("objC").get("subObject").has("key"));
         Assert.assertEquals("value", result.get("objC").get("subObject").get("key").asText());
     }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void mapTest006() {
+        final String fields = "*";
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Map<String, Object> otherMap = new LinkedHashMap<>();
+        otherMap.put("STRING", "other");
+        otherMap.put("extra", 42);
+
+        final JsonNode firstResult = partialize.buildPartialObject(fields, Map.class, this.simpleMap);
+        final JsonNode secondResult = partialize.buildPartialObject(fields, Map.class, otherMap);
+        final JsonNode thirdResult = partialize.buildPartialObject("string,extra", Map.class, otherMap);
+
+        Assert.assertEquals(4, firstResult.size());
+        Assert.assertEquals("hello world!", firstResult.get("string").asText());
+        Assert.assertEquals(2, secondResult.size());
+        Assert.assertEquals("other", secondResult.get("STRING").asText());
+        Assert.assertEquals(42, secondResult.get("extra").asInt());
+        Assert.assertEquals(1, thirdResult.size());
+        Assert.assertEquals(42, thirdResult.get("extra").asInt());
+    }
 }
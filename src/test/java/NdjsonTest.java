@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * NdjsonTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class NdjsonTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void ndjsonTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        partialize.writePartialLines("id,name", Arrays.asList(new Pojo(1), null, new Pojo(2)), outputStream);
+        final String result = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+
+        Assert.assertEquals("{\"id\":1,\"name\":\"Pojo #1\"}\nnull\n{\"id\":2,\"name\":\"Pojo #2\"}\n", result);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void ndjsonTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final int count = 10000;
+        final Iterable<Pojo> instances = () -> new Iterator<>() {
+
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return this.idx < count;
+            }
+
+            @Override
+            public Pojo next() {
+                return new Pojo(this.idx++);
+            }
+        };
+
+        partialize.writeLines(com.zero_x_baadf00d.partialize.Partialize.compile("name,child(id)"), instances, outputStream);
+        final String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        Assert.assertEquals(count, lines.length);
+        for (int idx = 0; idx < count; ++idx) {
+            final JsonNode line = objectMapper.readTree(lines[idx]);
+            Assert.assertEquals(partialize.buildPartialObject("name,child(id)", Pojo.class, new Pojo(idx)), line);
+        }
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void ndjsonTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        partialize.setExceptionCallback(ex -> {
+        });
+
+        partialize.writePartialLines("id,(", Collections.singletonList(new Pojo(1)), outputStream);
+        partialize.writeLines((FieldQuery) null, Collections.emptyList(), outputStream);
+
+        Assert.assertEquals(0, outputStream.size());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "name", "child"})
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return "Pojo #" + this.id;
+        }
+
+        public Pojo getChild() {
+            return new Pojo(this.id + 1);
+        }
+    }
+}
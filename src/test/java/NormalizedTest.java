@@ -0,0 +1,371 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * NormalizedTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class NormalizedTest {
+
+    /**
+     * Build posts sharing the same author and tags.
+     *
+     * @return A list of posts
+     * @since 26.10.17
+     */
+    private List<Post> createPosts() {
+        final Author author = new Author(7, "John");
+        final Tag java = new Tag("java");
+        final Tag json = new Tag("json");
+        return Arrays.asList(
+            new Post(1, author, Arrays.asList(java, json)),
+            new Post(2, new Author(7, "John"), Arrays.asList(json)),
+            new Post(3, new Author(8, "Jane"), Arrays.asList(java))
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void normalizedTest001() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        final JsonNode result = partialize.buildPartialNormalized("id,author(name),tags", Post.class, this.createPosts());
+
+        Assert.assertEquals(
+            "{\"data\":["
+                + "{\"id\":1,\"author\":{\"$ref\":\"Author:7\"},\"tags\":[{\"$ref\":\"Tag:#1\"},{\"$ref\":\"Tag:#2\"}]},"
+                + "{\"id\":2,\"author\":{\"$ref\":\"Author:7\"},\"tags\":[{\"$ref\":\"Tag:#2\"}]},"
+                + "{\"id\":3,\"author\":{\"$ref\":\"Author:8\"},\"tags\":[{\"$ref\":\"Tag:#1\"}]}"
+                + "],\"entities\":{"
+                + "\"Author:7\":{\"name\":\"John\"},"
+                + "\"Tag:#1\":{\"label\":\"java\"},"
+                + "\"Tag:#2\":{\"label\":\"json\"},"
+                + "\"Author:8\":{\"name\":\"Jane\"}"
+                + "}}",
+            result.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void normalizedTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Post post = this.createPosts().get(0);
+
+        final JsonNode result = partialize.buildPartialNormalized("author(name,friend(id)),reviewer(id)", Post.class, post);
+
+        Assert.assertEquals(
+            "{\"data\":{\"author\":{\"$ref\":\"Author:7\"},\"reviewer\":{\"$ref\":\"Author:7/1\"}},"
+                + "\"entities\":{"
+                + "\"Author:7\":{\"name\":\"John\",\"friend\":{\"$ref\":\"Author:7/1\"}},"
+                + "\"Author:7/1\":{\"id\":7}"
+                + "}}",
+            result.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void normalizedTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final FieldQuery fieldQuery = com.zero_x_baadf00d.partialize.Partialize.compile("*");
+        final StringWriter writer = new StringWriter();
+
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            partialize.writeNormalized(fieldQuery, Post.class, this.createPosts(), generator);
+        }
+
+        Assert.assertEquals(partialize.buildNormalized(fieldQuery, Post.class, this.createPosts()).toString(), writer.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void normalizedTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Holder holder = new Holder(Arrays.asList(
+            new Keyed(1, "integer"),
+            new Keyed(1L, "long"),
+            new Keyed(null, "reference"),
+            new Keyed("#1", "hash"),
+            new Mirror.Keyed(1, "mirror"),
+            new Keyed(1, "integer")
+        ));
+
+        final JsonNode result = partialize.buildPartialNormalized("items(label)", Holder.class, holder);
+
+        Assert.assertEquals(
+            "{\"data\":{\"items\":["
+                + "{\"$ref\":\"Keyed:1\"},{\"$ref\":\"Keyed:1~2\"},{\"$ref\":\"Keyed:#1\"},"
+                + "{\"$ref\":\"Keyed:#1~2\"},{\"$ref\":\"Keyed:1~3\"},{\"$ref\":\"Keyed:1\"}"
+                + "]},\"entities\":{"
+                + "\"Keyed:1\":{\"label\":\"integer\"},"
+                + "\"Keyed:1~2\":{\"label\":\"long\"},"
+                + "\"Keyed:#1\":{\"label\":\"reference\"},"
+                + "\"Keyed:#1~2\":{\"label\":\"hash\"},"
+                + "\"Keyed:1~3\":{\"label\":\"mirror\"}"
+                + "}}",
+            result.toString()
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void normalizedTest005() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Exception> exceptions = new ArrayList<>();
+        partialize.setAccessPolicy(accessPolicy -> !accessPolicy.field.equals("id"));
+        partialize.setExceptionCallback(exceptions::add);
+        final Holder holder = new Holder(Arrays.asList(new Keyed(1, "first"), new Keyed(1, "second"), new Keyed(new Object(), "failing")));
+
+        final JsonNode result = partialize.buildPartialNormalized("items(label)", Holder.class, holder);
+
+        Assert.assertEquals(
+            "{\"data\":{\"items\":[{\"$ref\":\"Keyed:#1\"},{\"$ref\":\"Keyed:#2\"},{\"$ref\":\"Keyed:#3\"}]},"
+                + "\"entities\":{"
+                + "\"Keyed:#1\":{\"label\":\"first\"},"
+                + "\"Keyed:#2\":{\"label\":\"second\"},"
+                + "\"Keyed:#3\":{\"label\":\"failing\"}"
+                + "}}",
+            result.toString()
+        );
+        Assert.assertTrue(exceptions.isEmpty());
+
+        partialize.setAccessPolicy(null);
+        partialize.buildPartialNormalized("items(label)", Holder.class, holder);
+
+        Assert.assertEquals(1, exceptions.size());
+    }
+
+    /**
+     * Post.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "author", "reviewer", "tags"})
+    public static class Post {
+
+        private final int id;
+
+        private final Author author;
+
+        private final List<Tag> tags;
+
+        public Post(final int id, final Author author, final List<Tag> tags) {
+            this.id = id;
+            this.author = author;
+            this.tags = tags;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public Author getAuthor() {
+            return this.author;
+        }
+
+        public Author getReviewer() {
+            return this.author;
+        }
+
+        public List<Tag> getTags() {
+            return this.tags;
+        }
+    }
+
+    /**
+     * Author, identified by its id.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "name", "friend"}, identifierField = "id")
+    public static class Author {
+
+        private final int id;
+
+        private final String name;
+
+        public Author(final int id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Author getFriend() {
+            return this;
+        }
+    }
+
+    /**
+     * Tag, identified by reference.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"label"})
+    public static class Tag {
+
+        private final String label;
+
+        public Tag(final String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    /**
+     * Holder of heterogeneous entities.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"items"})
+    public static class Holder {
+
+        private final List<Object> items;
+
+        public Holder(final List<Object> items) {
+            this.items = items;
+        }
+
+        public List<Object> getItems() {
+            return this.items;
+        }
+    }
+
+    /**
+     * Entity identified by an arbitrary value. A plain {@code Object}
+     * identifier makes the getter fail.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"id", "label"}, identifierField = "id")
+    public static class Keyed {
+
+        private final Object id;
+
+        private final String label;
+
+        public Keyed(final Object id, final String label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        public Object getId() {
+            if (this.id != null && this.id.getClass() == Object.class) {
+                throw new IllegalStateException("No identifier");
+            }
+            return this.id;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    /**
+     * Holds a class sharing its simple name with {@link Keyed}.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static class Mirror {
+
+        /**
+         * Entity with the same simple name as {@link NormalizedTest.Keyed}.
+         *
+         * @author Thibault Meyer
+         * @version 26.10.17
+         * @since 26.10.17
+         */
+        @Partialize(allowedFields = {"id", "label"}, identifierField = "id")
+        public static class Keyed {
+
+            private final int id;
+
+            private final String label;
+
+            public Keyed(final int id, final String label) {
+                this.id = id;
+                this.label = label;
+            }
+
+            public int getId() {
+                return this.id;
+            }
+
+            public String getLabel() {
+                return this.label;
+            }
+        }
+    }
+}
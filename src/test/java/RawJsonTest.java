@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zero_x_baadf00d.partialize.OutputFormat;
+import com.zero_x_baadf00d.partialize.RawJson;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RawJsonTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RawJsonTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void rawJsonTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+        final String expected = "{\"text\":{\"a\": 1,  \"b\" : [true]},\"bytes\":[1, 2],\"buffer\":\"ok\",\"empty\":null}";
+
+        partialize.writePartial("text,bytes,buffer,empty", Pojo.class, new Pojo(), writer);
+        final JsonNode result = partialize.buildPartialObject("text,bytes,buffer,empty", Pojo.class, new Pojo());
+
+        Assert.assertEquals(expected, writer.toString());
+        Assert.assertEquals(expected, result.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void rawJsonTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+        final String expected = "{\"document\":{\"id\":1,\"author\":{\"name\":\"John\"},\"tags\":[{\"label\":\"java\"},{\"label\":\"json\"}]},"
+            + "\"list\":[{\"ID\":1},{\"ID\":2}]}";
+
+        partialize.writePartial("document(id,author(name),tags(-id)),list(id)", Pojo.class, new Pojo(), writer);
+        final JsonNode result = partialize.buildPartialObject("document(id,author(name),tags(-id)),list(id)", Pojo.class, new Pojo());
+
+        Assert.assertEquals(expected, writer.toString());
+        Assert.assertEquals(expected, result.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void rawJsonTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        partialize.setOutputFormat(OutputFormat.SMILE);
+
+        partialize.writePartial("text,bytes", Pojo.class, new Pojo(), outputStream);
+        final JsonNode result = new ObjectMapper(new SmileFactory()).readTree(outputStream.toByteArray());
+
+        Assert.assertEquals(new ObjectMapper().readTree("{\"text\":{\"a\":1,\"b\":[true]},\"bytes\":[1,2]}"), result);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void rawJsonTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Exception> exceptions = new ArrayList<>();
+        partialize.setExceptionCallback(exceptions::add);
+
+        final JsonNode result = partialize.buildPartialObject("malformed(id),text(c)", Pojo.class, new Pojo());
+
+        Assert.assertEquals("{\"malformed\":null,\"text\":{}}", result.toString());
+        Assert.assertEquals(1, exceptions.size());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void rawJsonTest005() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Exception> exceptions = new ArrayList<>();
+        partialize.setExceptionCallback(exceptions::add);
+        final StringWriter writer = new StringWriter();
+
+        partialize.writePartial("text(c)", Pojo.class, new Pojo(), writer);
+        Assert.assertEquals("{\"text\":{}}", writer.toString());
+
+        writer.getBuffer().setLength(0);
+        partialize.writePartial("malformed(id)", Pojo.class, new Pojo(), writer);
+        Assert.assertEquals("{\"malformed\":null}", writer.toString());
+        Assert.assertEquals(1, exceptions.size());
+
+        try {
+            partialize.writePartial("truncated(id)", Pojo.class, new Pojo(), new StringWriter());
+            Assert.fail("Truncated raw JSON copied to the stream");
+        } catch (final IOException ignore) {
+            Assert.assertEquals(1, exceptions.size());
+        }
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"text", "bytes", "buffer", "empty", "document", "list", "malformed", "truncated"})
+    public static class Pojo {
+
+        public RawJson getText() {
+            return RawJson.of("{\"a\": 1,  \"b\" : [true]}");
+        }
+
+        public RawJson getBytes() {
+            return RawJson.of("[1, 2]".getBytes(StandardCharsets.UTF_8));
+        }
+
+        public RawJson getBuffer() {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+            buffer.put("xx\"ok\"".getBytes(StandardCharsets.UTF_8)).flip().position(2);
+            return RawJson.of(buffer);
+        }
+
+        public RawJson getEmpty() {
+            return null;
+        }
+
+        public RawJson getDocument() {
+            return RawJson.of("{\"id\":1,\"secret\":\"s\",\"author\":{\"name\":\"John\",\"email\":\"j@x\"},"
+                + "\"tags\":[{\"id\":1,\"label\":\"java\"},{\"id\":2,\"label\":\"json\"}]}");
+        }
+
+        public RawJson getList() {
+            return RawJson.of("[{\"ID\":1,\"x\":0},{\"ID\":2}]");
+        }
+
+        public RawJson getMalformed() {
+            return RawJson.of("{\"id\":");
+        }
+
+        public RawJson getTruncated() {
+            return RawJson.of("{\"id\":1,\"name\":");
+        }
+    }
+}
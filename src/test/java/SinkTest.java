@@ -0,0 +1,502 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.PartializeConverterManager;
+import com.zero_x_baadf00d.partialize.RawJson;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import com.zero_x_baadf00d.partialize.converter.Converter;
+import com.zero_x_baadf00d.partialize.sink.PartialSink;
+import converters.JodaDateTimeConverter;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SinkTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SinkTest {
+
+    /**
+     * Differential check against the tree rendering.
+     *
+     * @since 26.10.17
+     */
+    @Rule
+    public final DifferentialRendering differentialRendering = new DifferentialRendering();
+
+    /**
+     * Restore converters.
+     *
+     * @since 26.10.17
+     */
+    @After
+    public void restoreConverters() {
+        PartializeConverterManager.getInstance().removeAllConverters();
+        PartializeConverterManager.getInstance().registerConverter(new JodaDateTimeConverter());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void sinkTest001() throws IOException {
+        this.differentialRendering.assertMatchesTree((partialize, fields, instance) -> {
+            final StringWriter writer = new StringWriter();
+            try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+                partialize.renderPartial(fields, StreamingTest.Pojo.class, instance, new GeneratorSink(generator));
+            }
+            return writer.toString();
+        });
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void sinkTest002() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<String> events = new ArrayList<>();
+        PartializeConverterManager.getInstance().removeAllConverters();
+        PartializeConverterManager.getInstance().registerConverter(new EventConverter());
+
+        partialize.render(
+            com.zero_x_baadf00d.partialize.Partialize.compile("id,date,attributes(dates)"),
+            StreamingTest.Pojo.class,
+            new StreamingTest.Pojo(),
+            new EventSink(events)
+        );
+
+        Assert.assertEquals(
+            Arrays.asList(
+                "{", "id", "42", "date", "2016", "attributes", "{", "dates", "[", "2016", "null", "]", "}", "}"
+            ),
+            events
+        );
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void sinkTest003() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<String> events = new ArrayList<>();
+
+        partialize.renderPartial("raw,stream,reader", Pojo.class, new Pojo(), new EventSink(events));
+
+        Assert.assertEquals(
+            Arrays.asList(
+                "{",
+                "raw", "{", "a", "[", "1", "12345678901", "2.5", "true", "null", "x", "]", "}",
+                "stream", "AQI=",
+                "reader", "text",
+                "}"
+            ),
+            events
+        );
+    }
+
+    /**
+     * Pojo with values sent through the default methods of sinks.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"raw", "stream", "reader"})
+    public static class Pojo {
+
+        public RawJson getRaw() {
+            return RawJson.of("{\"a\":[1,12345678901,2.5,true,null,\"x\"]}");
+        }
+
+        public InputStream getStream() {
+            return new ByteArrayInputStream(new byte[]{1, 2});
+        }
+
+        public Reader getReader() {
+            return new StringReader("text");
+        }
+    }
+
+    /**
+     * Converter sending the year of dates to sinks.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static class EventConverter implements Converter<DateTime> {
+
+        @Override
+        public void convert(final String fieldName, final DateTime data, final ObjectNode node) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void convert(final String fieldName, final DateTime data, final ArrayNode node) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void convert(final String fieldName, final DateTime data, final PartialSink sink, final boolean inArray) {
+            if (!inArray) {
+                sink.field(fieldName);
+            }
+            sink.value(data.getYear());
+        }
+
+        @Override
+        public Class<DateTime> getManagedObjectClass() {
+            return DateTime.class;
+        }
+    }
+
+    /**
+     * Sink recording events.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static class EventSink implements PartialSink {
+
+        private final List<String> events;
+
+        public EventSink(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void beginObject() {
+            this.events.add("{");
+        }
+
+        @Override
+        public void endObject() {
+            this.events.add("}");
+        }
+
+        @Override
+        public void beginArray() {
+            this.events.add("[");
+        }
+
+        @Override
+        public void endArray() {
+            this.events.add("]");
+        }
+
+        @Override
+        public void field(final String name) {
+            this.events.add(name);
+        }
+
+        @Override
+        public void nullValue() {
+            this.events.add("null");
+        }
+
+        @Override
+        public void value(final String value) {
+            this.events.add(value);
+        }
+
+        @Override
+        public void value(final boolean value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final short value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final int value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final long value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final float value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final double value) {
+            this.events.add(String.valueOf(value));
+        }
+
+        @Override
+        public void value(final BigInteger value) {
+            this.events.add(value.toString());
+        }
+
+        @Override
+        public void value(final BigDecimal value) {
+            this.events.add(value.toString());
+        }
+
+        @Override
+        public void value(final JsonNode value) {
+            this.events.add(value.toString());
+        }
+
+        @Override
+        public void value(final byte[] value) {
+            this.events.add(Base64.getEncoder().encodeToString(value));
+        }
+    }
+
+    /**
+     * Sink writing events to a generator.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    public static class GeneratorSink implements PartialSink {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        private final JsonGenerator generator;
+
+        public GeneratorSink(final JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void beginObject() {
+            try {
+                this.generator.writeStartObject();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void endObject() {
+            try {
+                this.generator.writeEndObject();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void beginArray() {
+            try {
+                this.generator.writeStartArray();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void endArray() {
+            try {
+                this.generator.writeEndArray();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void field(final String name) {
+            try {
+                this.generator.writeFieldName(name);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void nullValue() {
+            try {
+                this.generator.writeNull();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final String value) {
+            try {
+                this.generator.writeString(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final boolean value) {
+            try {
+                this.generator.writeBoolean(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final short value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final int value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final long value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final float value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final double value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final BigInteger value) {
+            try {
+                this.generator.writeNumber(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final BigDecimal value) {
+            try {
+                this.objectMapper.writeTree(this.generator, this.objectMapper.getNodeFactory().numberNode(value));
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final JsonNode value) {
+            try {
+                this.objectMapper.writeTree(this.generator, value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final byte[] value) {
+            try {
+                this.generator.writeBinary(value);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final InputStream value) {
+            try {
+                this.generator.writeBinary(value, -1);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final Reader value) {
+            try {
+                this.generator.writeString(value, -1);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void value(final RawJson value) {
+            try {
+                this.generator.writeRawValue(value.toString());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
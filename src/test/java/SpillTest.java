@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.zero_x_baadf00d.partialize.PartialResult;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SpillTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SpillTest {
+
+    /**
+     * Directory of the temporary files.
+     *
+     * @since 26.10.17
+     */
+    private Path spillDirectory;
+
+    /**
+     * Create the directory of the temporary files.
+     *
+     * @throws IOException If the directory can't be created
+     * @since 26.10.17
+     */
+    @Before
+    public void createSpillDirectory() throws IOException {
+        this.spillDirectory = Files.createTempDirectory("spill-test");
+    }
+
+    /**
+     * Delete the directory of the temporary files.
+     *
+     * @throws IOException If the directory can't be deleted
+     * @since 26.10.17
+     */
+    @After
+    public void deleteSpillDirectory() throws IOException {
+        Files.delete(this.spillDirectory);
+    }
+
+    /**
+     * Count the files of the spill directory.
+     *
+     * @return The number of files
+     * @throws IOException If the directory can't be listed
+     * @since 26.10.17
+     */
+    private long countSpilledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(this.spillDirectory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Build a list of the given size.
+     *
+     * @param size The number of items
+     * @return The items
+     * @since 26.10.17
+     */
+    private List<Pojo> buildItems(final int size) {
+        final List<Pojo> items = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            items.add(new Pojo(i));
+        }
+        return items;
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void spillTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setSpillDirectory(this.spillDirectory);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (PartialResult result = partialize.buildPartialResult("id,name", Pojo.class, this.buildItems(3))) {
+            Assert.assertFalse(result.isSpilled());
+            Assert.assertEquals(0, this.countSpilledFiles());
+            result.writeTo(outputStream);
+            Assert.assertEquals(result.size(), outputStream.size());
+        }
+
+        Assert.assertEquals("[{\"id\":0,\"name\":\"item-0\"},{\"id\":1,\"name\":\"item-1\"},{\"id\":2,\"name\":\"item-2\"}]",
+            outputStream.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void spillTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setSpillThreshold(64).setSpillDirectory(this.spillDirectory);
+        final List<Pojo> items = this.buildItems(10000);
+        final String expected = partialize.buildPartialObject("id,name", Pojo.class, items).toString();
+
+        final PartialResult result = partialize.buildResult(com.zero_x_baadf00d.partialize.Partialize.compile("id,name"), Pojo.class, items);
+        Assert.assertTrue(result.isSpilled());
+
+        for (int i = 0; i < 2; ++i) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            Assert.assertEquals(result.size(), result.transferTo(Channels.newChannel(outputStream)));
+            Assert.assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8.name()));
+        }
+
+        result.close();
+        result.close();
+        Assert.assertEquals(0, this.countSpilledFiles());
+        try {
+            result.writeTo(new ByteArrayOutputStream());
+            Assert.fail();
+        } catch (final IOException ignore) {
+        }
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void spillTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setSpillThreshold(0).setSpillDirectory(this.spillDirectory);
+
+        try {
+            partialize.buildPartialResult("id", Pojo.class, Arrays.asList(new Pojo(1), "not annotated"));
+            Assert.fail();
+        } catch (final RuntimeException ignore) {
+        }
+
+        Assert.assertEquals(0, this.countSpilledFiles());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void spillTest004() {
+        new com.zero_x_baadf00d.partialize.Partialize().setSpillThreshold(-1);
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"id", "name"},
+        defaultFields = {"id"}
+    )
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return "item-" + this.id;
+        }
+    }
+}
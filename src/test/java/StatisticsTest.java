@@ -0,0 +1,186 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.zero_x_baadf00d.partialize.FieldQuery;
+import com.zero_x_baadf00d.partialize.PartialResult;
+import com.zero_x_baadf00d.partialize.RenderStatistics;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * StatisticsTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StatisticsTest {
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest001() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+
+        partialize.buildPartialObject("id,name", Pojo.class, Arrays.asList(new Pojo(1), new Pojo(2), new Pojo(3)));
+        partialize.buildPartialObject("id,name", Pojo.class, new Pojo(4));
+
+        final RenderStatistics statistics = partialize.getStatistics("id,name", Pojo.class);
+        Assert.assertEquals(4, statistics.getObjectCount());
+        Assert.assertEquals(2.0, statistics.getAverageFieldCount(), 0.0);
+        Assert.assertEquals(1, statistics.getCollectionCount());
+        Assert.assertEquals(3.0, statistics.getAverageElementCount(), 0.0);
+        Assert.assertEquals(0, statistics.getOutputCount());
+        Assert.assertSame(statistics, partialize.getStatistics(com.zero_x_baadf00d.partialize.Partialize.compile("id,name"), Pojo.class));
+        Assert.assertEquals(0, partialize.getStatistics("name", Pojo.class).getObjectCount());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final FieldQuery fieldQuery = com.zero_x_baadf00d.partialize.Partialize.compile("name,id");
+
+        long size = 0;
+        for (int i = 0; i < 3; ++i) {
+            try (PartialResult result = partialize.buildResult(fieldQuery, Pojo.class, Arrays.asList(new Pojo(1), new Pojo(2)))) {
+                size = result.size();
+            }
+        }
+
+        final RenderStatistics statistics = partialize.getStatistics(fieldQuery, Pojo.class);
+        Assert.assertEquals(3, statistics.getOutputCount());
+        Assert.assertEquals(size, statistics.getAverageOutputBytes(), 0.0);
+        Assert.assertEquals(6, statistics.getObjectCount());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest003() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setAccessPolicy(accessPolicy -> !"name".equals(accessPolicy.field));
+
+        partialize.buildPartialColumns("*", Pojo.class, Arrays.asList(new Pojo(1), null));
+        Assert.assertEquals("{\"id\":1}", partialize.buildPartialObject("*", Pojo.class, new Pojo(1)).toString());
+
+        final RenderStatistics statistics = partialize.getStatistics("*", Pojo.class);
+        Assert.assertEquals(1, statistics.getObjectCount());
+        Assert.assertEquals(1.0, statistics.getAverageFieldCount(), 0.0);
+        Assert.assertEquals(2.0, statistics.getAverageElementCount(), 0.0);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setExceptionCallback(ex -> {
+        });
+
+        Assert.assertNull(partialize.getStatistics("id", HashMap.class));
+        Assert.assertNull(partialize.getStatistics("(", Pojo.class));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest005() {
+        for (int i = 0; i < 3; ++i) {
+            new com.zero_x_baadf00d.partialize.Partialize().buildPartialObject("id", Pojo.class, Arrays.asList(new Pojo(1), new Pojo(2)));
+        }
+
+        final RenderStatistics statistics = new com.zero_x_baadf00d.partialize.Partialize().getStatistics("id", Pojo.class);
+        Assert.assertEquals(3, statistics.getCollectionCount());
+        Assert.assertEquals(6, statistics.getObjectCount());
+        Assert.assertEquals(2.0, statistics.getAverageElementCount(), 0.0);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void statisticsTest006() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final List<Pojo> large = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            large.add(new Pojo(i));
+        }
+
+        for (int i = 0; i < 50; ++i) {
+            partialize.buildPartialObject("id,name,id", Pojo.class, large);
+        }
+        for (int i = 0; i < 30; ++i) {
+            partialize.buildPartialObject("id,name,id", Pojo.class, Collections.singletonList(new Pojo(i)));
+        }
+
+        final RenderStatistics statistics = partialize.getStatistics("id,name,id", Pojo.class);
+        Assert.assertEquals(80, statistics.getCollectionCount());
+        Assert.assertTrue(statistics.toString(), statistics.getAverageElementCount() < 5.0);
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"id", "name"},
+        defaultFields = {"id"}
+    )
+    public static class Pojo {
+
+        private final int id;
+
+        public Pojo(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return "item-" + this.id;
+        }
+    }
+}
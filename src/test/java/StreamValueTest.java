@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.zero_x_baadf00d.partialize.DelimitedFormat;
+import com.zero_x_baadf00d.partialize.OutputFormat;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * StreamValueTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StreamValueTest {
+
+    /**
+     * Size of the generated payloads.
+     *
+     * @since 26.10.17
+     */
+    private static final int PAYLOAD_SIZE = 100000;
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamValueTest001() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo pojo = new Pojo();
+        final StringWriter writer = new StringWriter();
+
+        partialize.writePartial("bytes,attachment,description", Pojo.class, pojo, writer);
+        final JsonNode result = new ObjectMapper().readTree(writer.toString());
+
+        Assert.assertArrayEquals(Pojo.createPayload(), result.get("bytes").binaryValue());
+        Assert.assertArrayEquals(Pojo.createPayload(), result.get("attachment").binaryValue());
+        Assert.assertEquals(Pojo.createDescription(), result.get("description").textValue());
+        Assert.assertEquals(2, pojo.closedStreams);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamValueTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final Pojo pojo = new Pojo();
+        final StringWriter writer = new StringWriter();
+
+        final JsonNode result = partialize.buildPartialObject("bytes,attachment,description", Pojo.class, pojo);
+        partialize.writePartial("bytes,attachment,description", Pojo.class, new Pojo(), writer);
+
+        Assert.assertEquals(result.toString(), writer.toString());
+        Assert.assertEquals(2, pojo.closedStreams);
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamValueTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        partialize.setOutputFormat(OutputFormat.CBOR);
+
+        partialize.writePartial("attachment,description", Pojo.class, new Pojo(), outputStream);
+        final JsonNode result = new ObjectMapper(new CBORFactory()).readTree(outputStream.toByteArray());
+
+        Assert.assertArrayEquals(Pojo.createPayload(), result.get("attachment").binaryValue());
+        Assert.assertEquals(Pojo.createDescription(), result.get("description").textValue());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamValueTest004() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+
+        partialize.writePartialDelimited("bytes,attachment", Pojo.class, Collections.singletonList(new Pojo()), DelimitedFormat.TSV, writer);
+
+        final String payload = Base64.getEncoder().encodeToString(Pojo.createPayload());
+        Assert.assertEquals("bytes\tattachment\n" + payload + "\t" + payload + "\n", writer.toString());
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(allowedFields = {"bytes", "attachment", "description"})
+    public static class Pojo {
+
+        private int closedStreams;
+
+        static byte[] createPayload() {
+            final byte[] payload = new byte[StreamValueTest.PAYLOAD_SIZE];
+            for (int idx = 0; idx < payload.length; ++idx) {
+                payload[idx] = (byte) idx;
+            }
+            return payload;
+        }
+
+        static String createDescription() {
+            final char[] description = new char[StreamValueTest.PAYLOAD_SIZE];
+            Arrays.fill(description, 'é');
+            description[0] = '"';
+            description[description.length - 1] = '\n';
+            return new String(description);
+        }
+
+        public byte[] getBytes() {
+            return Pojo.createPayload();
+        }
+
+        public InputStream getAttachment() {
+            return new ByteArrayInputStream(Pojo.createPayload()) {
+
+                @Override
+                public void close() {
+                    ++Pojo.this.closedStreams;
+                }
+            };
+        }
+
+        public Reader getDescription() {
+            return new StringReader(Pojo.createDescription()) {
+
+                @Override
+                public void close() {
+                    ++Pojo.this.closedStreams;
+                }
+            };
+        }
+    }
+}
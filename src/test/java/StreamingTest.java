@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Thibault Meyer
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zero_x_baadf00d.partialize.annotation.Partialize;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * StreamingTest.
+ *
+ * @author Thibault Meyer
+ * @version 26.10.17
+ * @since 26.10.17
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class StreamingTest {
+
+    /**
+     * Differential check against the tree rendering.
+     *
+     * @since 26.10.17
+     */
+    @Rule
+    public final DifferentialRendering differentialRendering = new DifferentialRendering();
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamingTest001() throws IOException {
+        this.differentialRendering.assertMatchesTree((partialize, fields, instance) -> {
+            final StringWriter writer = new StringWriter();
+            partialize.writePartial(fields, Pojo.class, instance, writer);
+            return writer.toString();
+        });
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamingTest002() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+
+            @Override
+            public void close() {
+                Assert.fail("Output stream must not be closed");
+            }
+        };
+
+        partialize.writePartial("name,amount", Pojo.class, new Pojo(), outputStream);
+
+        Assert.assertEquals("{\"name\":\"Jöhn\",\"amount\":1.5}", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamingTest003() throws IOException {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        final StringWriter writer = new StringWriter();
+
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            generator.writeStartArray();
+            partialize.write(com.zero_x_baadf00d.partialize.Partialize.compile("id"), Pojo.class, new Pojo(), generator);
+            partialize.write(com.zero_x_baadf00d.partialize.Partialize.compile("node"), Pojo.class, new Pojo(), generator);
+            generator.writeEndArray();
+        }
+
+        Assert.assertEquals("[{\"id\":42},{\"node\":{\"key\":\"value\"}}]", writer.toString());
+    }
+
+    /**
+     * @since 26.10.17
+     */
+    @Test
+    public void streamingTest004() {
+        final com.zero_x_baadf00d.partialize.Partialize partialize = new com.zero_x_baadf00d.partialize.Partialize();
+        partialize.setExceptionCallback(ex -> {
+            throw new IllegalStateException(ex);
+        });
+        final List<Failing> items = Arrays.asList(new Failing(false), new Failing(false), new Failing(true), new Failing(false));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final StringWriter writer = new StringWriter();
+
+        try {
+            partialize.writePartial("id", Failing.class, items, outputStream);
+            Assert.fail();
+        } catch (final IllegalStateException | IOException ignore) {
+        }
+        try {
+            partialize.writePartial("id", Failing.class, items, writer);
+            Assert.fail();
+        } catch (final IllegalStateException | IOException ignore) {
+        }
+
+        Assert.assertEquals("[{\"id\":1},{\"id\":1},{", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals("[{\"id\":1},{\"id\":1},{", writer.toString());
+        try {
+            new ObjectMapper().readTree(writer.toString());
+            Assert.fail();
+        } catch (final IOException ignore) {
+        }
+    }
+
+    /**
+     * Status.
+     *
+     * @since 26.10.17
+     */
+    public enum Status {
+        ACTIVE,
+        DISABLED
+    }
+
+    /**
+     * Pojo.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"id", "name", "amount", "uuid", "enabled", "nickname", "status", "date", "node", "attributes", "matrix", "children"},
+        defaultFields = {"id", "name", "status"}
+    )
+    public static class Pojo {
+
+        private final int depth;
+
+        public Pojo() {
+            this(0);
+        }
+
+        private Pojo(final int depth) {
+            this.depth = depth;
+        }
+
+        public int getId() {
+            return 42;
+        }
+
+        public String getName() {
+            return "Jöhn";
+        }
+
+        public BigDecimal getAmount() {
+            return new BigDecimal("1.50");
+        }
+
+        public UUID getUuid() {
+            return UUID.fromString("2b5d4f2e-6a6f-4b7e-9a59-1b3f8e1c2d3a");
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public Optional<String> getNickname() {
+            return Optional.empty();
+        }
+
+        public Status getStatus() {
+            return Status.ACTIVE;
+        }
+
+        public DateTime getDate() {
+            return new DateTime(2016, 1, 18, 12, 0, 0);
+        }
+
+        public ObjectNode getNode() {
+            return JsonNodeFactory.instance.objectNode().put("key", "value");
+        }
+
+        public Map<String, Object> getAttributes() {
+            final Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("long", 1234567890123L);
+            attributes.put("double", 4.2);
+            attributes.put("null", null);
+            attributes.put("dates", Arrays.asList(new DateTime(2016, 1, 18, 12, 0, 0), null));
+            return attributes;
+        }
+
+        public List<List<Integer>> getMatrix() {
+            return Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4));
+        }
+
+        public List<Pojo> getChildren() {
+            return this.depth < 2 ? Arrays.asList(new Pojo(this.depth + 1), null) : null;
+        }
+    }
+
+    /**
+     * Failing.
+     *
+     * @author Thibault Meyer
+     * @version 26.10.17
+     * @since 26.10.17
+     */
+    @Partialize(
+        allowedFields = {"id"},
+        defaultFields = {"id"}
+    )
+    public static class Failing {
+
+        private final boolean failing;
+
+        public Failing(final boolean failing) {
+            this.failing = failing;
+        }
+
+        public int getId() {
+            if (this.failing) {
+                throw new IllegalArgumentException("Failing getter");
+            }
+            return 1;
+        }
+    }
+}